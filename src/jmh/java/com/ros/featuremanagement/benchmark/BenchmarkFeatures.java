@@ -0,0 +1,77 @@
+package com.ros.featuremanagement.benchmark;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generated feature definitions and documents shared by the benchmarks.
+ */
+final class BenchmarkFeatures {
+
+    static final String[] FILTERS = {"AlwaysOn", "Percentage", "RoleBased", "TimeBased", "Targeting"};
+
+    private BenchmarkFeatures() {
+    }
+
+    /**
+     * A definition using one of the built-in filters with typical parameters.
+     */
+    static FeatureDefinition feature(String name, String filter) {
+        Map<String, Object> parameters = switch (filter) {
+            case "Percentage" -> Map.of("percentage", 0.3);
+            case "RoleBased" -> Map.of("role", "admin");
+            case "TimeBased" -> Map.of("start", "2020-01-01T00:00:00", "end", "2999-01-01T00:00:00");
+            case "Targeting" -> Map.of("users", users(100), "groups", List.of("beta", "staff"));
+            default -> Map.of();
+        };
+        return new FeatureDefinition(name, true, List.of(new FilterConfig(filter, parameters)));
+    }
+
+    /**
+     * {@code count} features cycling through the built-in filters.
+     */
+    static List<FeatureDefinition> features(int count) {
+        List<FeatureDefinition> features = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            features.add(feature("Feature" + i, FILTERS[i % FILTERS.length]));
+        }
+        return features;
+    }
+
+    /**
+     * A YAML document with {@code count} features, in the format read by the YAML repositories.
+     */
+    static String yaml(int count, boolean enabled) {
+        StringBuilder yaml = new StringBuilder("features:\n");
+        for (int i = 0; i < count; i++) {
+            String filter = FILTERS[i % FILTERS.length];
+            yaml.append("  - name: Feature").append(i).append('\n')
+                .append("    enabled: ").append(enabled).append('\n')
+                .append("    filters:\n")
+                .append("      - name: ").append(filter).append('\n')
+                .append("        parameters:");
+            switch (filter) {
+                case "Percentage" -> yaml.append("\n          percentage: 0.3\n");
+                case "RoleBased" -> yaml.append("\n          role: admin\n");
+                case "TimeBased" -> yaml.append("\n          start: \"2020-01-01T00:00:00\"\n")
+                        .append("          end: \"2999-01-01T00:00:00\"\n");
+                case "Targeting" -> yaml.append("\n          users: [u1, u2, u3]\n")
+                        .append("          groups: [beta]\n");
+                default -> yaml.append(" {}\n");
+            }
+        }
+        return yaml.toString();
+    }
+
+    private static List<String> users(int count) {
+        List<String> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add("user" + i);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ros.featuremanagement.benchmark;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FeatureManager#getAllFeatures} over snapshots of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluateAllBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int featureCount;
+
+    private FeatureManager featureManager;
+    private FeatureContext context;
+
+    @Setup
+    public void setUp() {
+        InMemoryFeatureRepository repository = new InMemoryFeatureRepository();
+        for (FeatureDefinition def : BenchmarkFeatures.features(featureCount)) {
+            repository.addFeature(def);
+        }
+        featureManager = new FeatureManager(repository);
+        context = new FeatureContext("user42", List.of("admin", "beta"), List.of("invoice.read"));
+        featureManager.refreshFeatures();
+    }
+
+    @Benchmark
+    public Map<String, Boolean> getAllFeatures() {
+        return featureManager.getAllFeatures(context);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ros.featuremanagement.benchmark;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FeatureManager#isEnabled} for a single feature using each built-in filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterEvaluationBenchmark {
+
+    @Param({"AlwaysOn", "Percentage", "RoleBased", "TimeBased", "Targeting"})
+    public String filter;
+
+    private FeatureManager featureManager;
+    private FeatureContext context;
+
+    @Setup
+    public void setUp() {
+        InMemoryFeatureRepository repository = new InMemoryFeatureRepository();
+        repository.addFeature(BenchmarkFeatures.feature("Benchmarked", filter));
+        featureManager = new FeatureManager(repository);
+        context = new FeatureContext("user42", List.of("user", "beta"), List.of("invoice.read"));
+        featureManager.isEnabled("Benchmarked", context);
+    }
+
+    @Benchmark
+    public boolean isEnabled() {
+        return featureManager.isEnabled("Benchmarked", context);
+    }
+
+    /** Includes building the context, as a controller does per request. */
+    @Benchmark
+    public boolean isEnabledWithNewContext() {
+        return featureManager.isEnabled("Benchmarked",
+                new FeatureContext("user42", List.of("user", "beta"), List.of("invoice.read")));
+    }
+}
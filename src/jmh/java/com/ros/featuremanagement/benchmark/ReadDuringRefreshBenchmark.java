@@ -0,0 +1,96 @@
+package com.ros.featuremanagement.benchmark;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read throughput while another thread keeps publishing new snapshots.
+ *
+ * <p>Readers call {@link FeatureManager#isEnabled} and
+ * {@link FeatureManager#getAllFeatures}; the writer replaces one feature and
+ * refreshes, so every reader regularly switches to a recompiled snapshot.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadDuringRefreshBenchmark {
+
+    private static final int FEATURES = 1000;
+    private static final String[] NAMES = new String[FEATURES];
+
+    static {
+        for (int i = 0; i < FEATURES; i++) {
+            NAMES[i] = "Feature" + i;
+        }
+    }
+
+    private InMemoryFeatureRepository repository;
+    private FeatureManager featureManager;
+    private FeatureDefinition[] variants;
+    private int next;
+
+    @State(Scope.Thread)
+    public static class Reader {
+        final FeatureContext context = new FeatureContext("user42", List.of("admin"), List.of("invoice.read"));
+        int feature;
+    }
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryFeatureRepository();
+        for (FeatureDefinition def : BenchmarkFeatures.features(FEATURES)) {
+            repository.addFeature(def);
+        }
+        featureManager = new FeatureManager(repository);
+        featureManager.refreshFeatures();
+        variants = new FeatureDefinition[] {
+                BenchmarkFeatures.feature("Feature0", "Percentage"),
+                BenchmarkFeatures.feature("Feature0", "RoleBased")};
+    }
+
+    @Benchmark
+    @Group("readDuringRefresh")
+    @GroupThreads(3)
+    public boolean isEnabled(Reader reader) {
+        reader.feature = (reader.feature + 1) % FEATURES;
+        return featureManager.isEnabled(NAMES[reader.feature], reader.context);
+    }
+
+    @Benchmark
+    @Group("readDuringRefresh")
+    @GroupThreads(1)
+    public Map<String, Boolean> getAllFeatures(Reader reader) {
+        return featureManager.getAllFeatures(reader.context);
+    }
+
+    @Benchmark
+    @Group("readDuringRefresh")
+    @GroupThreads(1)
+    public void refresh() {
+        next ^= 1;
+        repository.addFeature(variants[next]);
+        featureManager.refreshFeatures();
+    }
+}
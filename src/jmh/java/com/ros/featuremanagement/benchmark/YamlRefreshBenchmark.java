@@ -0,0 +1,109 @@
+package com.ros.featuremanagement.benchmark;
+
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.impl.FileYamlFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.YamlFeatureLoader;
+import com.ros.featuremanagement.featuremanager.impl.YamlFeatureRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshing the YAML repositories from generated documents.
+ *
+ * <p>The classpath document for {@link YamlFeatureRepository} is generated
+ * into the benchmark's own classes directory, so the repository reads it
+ * through the class loader exactly as it reads its configured resource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlRefreshBenchmark {
+
+    @Param({"100", "10000"})
+    public int featureCount;
+
+    private byte[] document;
+    private Path resource;
+    private YamlFeatureRepository classpathRepository;
+    private Path file;
+    private FileYamlFeatureRepository fileRepository;
+    private byte[][] fileVersions;
+    private long modified;
+    private int nextVersion;
+    private final YamlFeatureLoader loader = new YamlFeatureLoader();
+
+    @Setup
+    public void setUp() throws IOException, URISyntaxException {
+        document = BenchmarkFeatures.yaml(featureCount, true).getBytes(StandardCharsets.UTF_8);
+
+        Path classes = Path.of(YamlRefreshBenchmark.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String name = "benchmark-features-" + featureCount + ".yaml";
+        resource = classes.resolve(name);
+        Files.write(resource, document);
+        classpathRepository = new YamlFeatureRepository(name);
+
+        // alternate between two documents so every file refresh sees a change
+        fileVersions = new byte[][] {document, BenchmarkFeatures.yaml(featureCount, false).getBytes(StandardCharsets.UTF_8)};
+        file = Files.createTempFile("benchmark-features", ".yaml");
+        Files.write(file, document);
+        fileRepository = new FileYamlFeatureRepository(file);
+        modified = System.currentTimeMillis();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileRepository.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(resource);
+    }
+
+    @Benchmark
+    public FeatureSnapshot classpathRefresh() {
+        classpathRepository.refresh();
+        return classpathRepository.getSnapshot();
+    }
+
+    @Benchmark
+    public FeatureSnapshot fileRefreshChanged() throws IOException {
+        nextVersion ^= 1;
+        Files.write(file, fileVersions[nextVersion]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified += 1000));
+        fileRepository.refresh();
+        return fileRepository.getSnapshot();
+    }
+
+    /** Refresh of an unchanged file, which only checks its attributes. */
+    @Benchmark
+    public FeatureSnapshot fileRefreshUnchanged() {
+        fileRepository.refresh();
+        return fileRepository.getSnapshot();
+    }
+
+    @Benchmark
+    public YamlFeatureLoader.LoadResult parse() throws IOException {
+        return loader.load(new ByteArrayInputStream(document));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ros.featuremanagement.featuremanager;
+
+/**
+ * A {@link FeatureFilter} that has already been bound to the parameters
+ * of a single feature.
+ *
+ * <p>Bound filters are created once, when a feature definition is compiled,
+ * so that parameter lookups, parsing and casts happen at load time rather
+ * than on every evaluation.
+ */
+@FunctionalInterface
+public interface BoundFilter {
+
+    /**
+     * A filter that matches every context. Filters whose result is known when
+     * they are bound should return this or {@link #NEVER}, so that rules can
+     * fold them away at compile time.
+     */
+    BoundFilter ALWAYS = new Constant(true);
+
+    /** A filter that matches no context; see {@link #ALWAYS}. */
+    BoundFilter NEVER = new Constant(false);
+
+    boolean evaluate(FeatureContext context);
+
+    /**
+     * Returns the time (epoch millis) until which a result of this filter may
+     * be cached, given the current time.
+     *
+     * <p>Filters whose result depends only on the context and parameters keep
+     * the default. Filters whose result can change on its own (for example at
+     * a time-window boundary) return the next instant it may change; filters
+     * that are never cacheable return {@code nowMillis}.
+     */
+    default long cacheableUntil(long nowMillis) {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the relative cost of one call to {@link #evaluate}.
+     *
+     * <p>The filters of a feature are combined with OR, so reorderable
+     * filters are run cheapest first. Filters that only inspect the context
+     * and their bound parameters should report {@link FilterCost#CHEAP}; the
+     * default assumes nothing about the filter.
+     */
+    default FilterCost getCost() {
+        return FilterCost.MODERATE;
+    }
+
+    /**
+     * Returns whether this filter may be evaluated out of declaration order.
+     *
+     * <p>Only filters without side effects may opt in. A filter that is not
+     * reorderable (the default, for example one that records an assignment)
+     * is always reached exactly when every filter declared before it
+     * returned false, and filters are never moved across it.
+     */
+    default boolean isReorderable() {
+        return false;
+    }
+
+    /** The {@link #ALWAYS} and {@link #NEVER} filters. */
+    final class Constant implements BoundFilter {
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            return value;
+        }
+
+        @Override
+        public FilterCost getCost() {
+            return FilterCost.CHEAP;
+        }
+
+        @Override
+        public boolean isReorderable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiles a {@link FeatureRule} into a tree of specialised
+ * {@link BoundFilter} nodes.
+ *
+ * <p>The tree is simplified while it is built:
+ * <ul>
+ *     <li>Filters bound to {@link BoundFilter#ALWAYS} or {@link BoundFilter#NEVER}
+ *     (for example a time window that has already closed) are folded into
+ *     their parents, which drops branches that can no longer change the
+ *     result. Siblings that are not reorderable are kept if they would have
+ *     run, so their side effects still happen in declaration order.</li>
+ *     <li>Nested {@code all} and {@code any} nodes of the same kind are
+ *     flattened, and double negations removed.</li>
+ *     <li>Nodes with two children get a dedicated class, so the common
+ *     {@code a && b} is evaluated without a loop.</li>
+ *     <li>Children of a node are run cheapest first (see
+ *     {@link BoundFilter#getCost()}), unless one of them is not
+ *     reorderable.</li>
+ * </ul>
+ */
+final class CompiledRule {
+
+    private static final Comparator<BoundFilter> BY_COST = Comparator.comparingInt(f -> f.getCost().getWeight());
+
+    private CompiledRule() {
+    }
+
+    /** Binds the filter of a rule leaf. */
+    @FunctionalInterface
+    interface Binder {
+        /**
+         * @return the bound filter, or {@code null} if the filter is invalid
+         */
+        BoundFilter bind(FilterConfig config);
+    }
+
+    /**
+     * Compiles a rule. Invalid leaves compile to {@link BoundFilter#NEVER};
+     * reporting them is up to the binder.
+     */
+    static BoundFilter compile(FeatureRule rule, Binder binder) {
+        switch (rule.getOperator()) {
+            case FILTER: {
+                BoundFilter bound = binder.bind(rule.getFilter());
+                return bound != null ? bound : BoundFilter.NEVER;
+            }
+            case NOT:
+                return not(compile(rule.getRules().get(0), binder));
+            case ALL:
+                return combine(true, rule.getRules(), binder);
+            case ANY:
+                return combine(false, rule.getRules(), binder);
+            default:
+                throw new IllegalArgumentException("Unknown rule operator: " + rule.getOperator());
+        }
+    }
+
+    private static BoundFilter not(BoundFilter operand) {
+        if (operand == BoundFilter.ALWAYS) {
+            return BoundFilter.NEVER;
+        }
+        if (operand == BoundFilter.NEVER) {
+            return BoundFilter.ALWAYS;
+        }
+        if (operand instanceof Not) {
+            return ((Not) operand).operand;
+        }
+        return new Not(operand);
+    }
+
+    /**
+     * Compiles the children of an {@code all} ({@code conjunction}) or
+     * {@code any} node and folds constants.
+     */
+    private static BoundFilter combine(boolean conjunction, List<FeatureRule> rules, Binder binder) {
+        BoundFilter identity = conjunction ? BoundFilter.ALWAYS : BoundFilter.NEVER;
+        BoundFilter absorbing = conjunction ? BoundFilter.NEVER : BoundFilter.ALWAYS;
+
+        // compile every child, even after an absorbing one, so all leaves are validated
+        List<BoundFilter> children = new ArrayList<>(rules.size());
+        boolean absorbed = false;
+        for (FeatureRule rule : rules) {
+            BoundFilter child = compile(rule, binder);
+            if (absorbed) {
+                continue; // never reached
+            }
+            List<BoundFilter> flattened = child instanceof Node && ((Node) child).conjunction == conjunction
+                    ? List.of(((Node) child).children)
+                    : List.of(child);
+            for (BoundFilter part : flattened) {
+                if (part == absorbing) {
+                    absorbed = true;
+                    break;
+                }
+                if (part != identity) {
+                    children.add(part);
+                }
+            }
+        }
+        if (absorbed) {
+            // reorderable children after the last one that is not have no
+            // observable effect; the rest still run, in order, before the constant
+            int kept = children.size();
+            while (kept > 0 && children.get(kept - 1).isReorderable()) {
+                kept--;
+            }
+            if (kept == 0) {
+                return absorbing;
+            }
+            children = new ArrayList<>(children.subList(0, kept));
+            children.add(absorbing);
+        }
+        if (children.isEmpty()) {
+            return identity;
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        if (children.stream().allMatch(BoundFilter::isReorderable)) {
+            children.sort(BY_COST); // stable: ties keep declaration order
+        }
+        BoundFilter[] array = children.toArray(new BoundFilter[0]);
+        if (array.length == 2) {
+            return conjunction ? new Both(array) : new Either(array);
+        }
+        return conjunction ? new All(array) : new Any(array);
+    }
+
+    /** An {@code all} or {@code any} node. */
+    private abstract static class Node implements BoundFilter {
+        final boolean conjunction;
+        final BoundFilter[] children;
+        private final FilterCost cost;
+        private final boolean reorderable;
+
+        Node(boolean conjunction, BoundFilter[] children) {
+            this.conjunction = conjunction;
+            this.children = children;
+            FilterCost max = FilterCost.CHEAP;
+            boolean all = true;
+            for (BoundFilter child : children) {
+                if (child.getCost().getWeight() > max.getWeight()) {
+                    max = child.getCost();
+                }
+                all &= child.isReorderable();
+            }
+            this.cost = max;
+            this.reorderable = all;
+        }
+
+        @Override
+        public long cacheableUntil(long nowMillis) {
+            long until = Long.MAX_VALUE;
+            for (BoundFilter child : children) {
+                until = Math.min(until, child.cacheableUntil(nowMillis));
+            }
+            return until;
+        }
+
+        @Override
+        public FilterCost getCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isReorderable() {
+            return reorderable;
+        }
+    }
+
+    private static final class All extends Node {
+        All(BoundFilter[] children) {
+            super(true, children);
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            for (BoundFilter child : children) {
+                if (!child.evaluate(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Both extends Node {
+        private final BoundFilter first;
+        private final BoundFilter second;
+
+        Both(BoundFilter[] children) {
+            super(true, children);
+            this.first = children[0];
+            this.second = children[1];
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            return first.evaluate(context) && second.evaluate(context);
+        }
+    }
+
+    private static final class Any extends Node {
+        Any(BoundFilter[] children) {
+            super(false, children);
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            for (BoundFilter child : children) {
+                if (child.evaluate(context)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Either extends Node {
+        private final BoundFilter first;
+        private final BoundFilter second;
+
+        Either(BoundFilter[] children) {
+            super(false, children);
+            this.first = children[0];
+            this.second = children[1];
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            return first.evaluate(context) || second.evaluate(context);
+        }
+    }
+
+    private static final class Not implements BoundFilter {
+        private final BoundFilter operand;
+
+        Not(BoundFilter operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            return !operand.evaluate(context);
+        }
+
+        @Override
+        public long cacheableUntil(long nowMillis) {
+            return operand.cacheableUntil(nowMillis);
+        }
+
+        @Override
+        public FilterCost getCost() {
+            return operand.getCost();
+        }
+
+        @Override
+        public boolean isReorderable() {
+            return operand.isReorderable();
+        }
+    }
+}
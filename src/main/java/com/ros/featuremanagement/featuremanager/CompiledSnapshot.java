@@ -0,0 +1,134 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The evaluation plans compiled from one {@link FeatureSnapshot}.
+ *
+ * <p>Plans are laid out in parallel arrays so the whole snapshot can be
+ * evaluated in a single pass. When a new snapshot is published, plans from
+ * the previous compiled snapshot are reused for every definition that did
+ * not change.
+ */
+final class CompiledSnapshot {
+
+    static final CompiledSnapshot EMPTY = new CompiledSnapshot(null, new String[0], new FeatureEvaluationPlan[0]);
+
+    private final FeatureSnapshot snapshot;
+    private final String[] names;
+    private final FeatureEvaluationPlan[] plans;
+    private final Map<String, Integer> index;
+
+    /** Memoized result of {@link #cacheableUntil}; valid until that time passes. */
+    private volatile long nextBoundary = Long.MIN_VALUE;
+
+    private CompiledSnapshot(FeatureSnapshot snapshot, String[] names, FeatureEvaluationPlan[] plans) {
+        this.snapshot = snapshot;
+        this.names = names;
+        this.plans = plans;
+        this.index = new HashMap<>(names.length * 4 / 3 + 1);
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+        }
+    }
+
+    static CompiledSnapshot compile(
+            FeatureSnapshot snapshot,
+            CompiledSnapshot previous,
+            Map<String, FeatureFilter> filters,
+            FeatureFilter defaultFilter,
+            FeatureMetrics metrics) {
+        String[] names = new String[snapshot.size()];
+        FeatureEvaluationPlan[] plans = new FeatureEvaluationPlan[names.length];
+
+        int i = 0;
+        for (Map.Entry<String, FeatureDefinition> entry : snapshot.getFeatures().entrySet()) {
+            FeatureEvaluationPlan old = previous.getPlan(entry.getKey());
+            names[i] = entry.getKey();
+            plans[i] = old != null
+                    ? old.rebind(entry.getKey(), entry.getValue(), filters, defaultFilter)
+                    : FeatureEvaluationPlan.compile(entry.getKey(), entry.getValue(), filters, defaultFilter, metrics);
+            i++;
+        }
+        return new CompiledSnapshot(snapshot, names, plans);
+    }
+
+    FeatureSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    FeatureEvaluationPlan getPlan(String featureName) {
+        Integer i = index.get(featureName);
+        return i != null ? plans[i] : null;
+    }
+
+    /**
+     * Resolves the given features (or all features, if {@code featureNames}
+     * is {@code null}) to their plans.
+     *
+     * @param recorded whether evaluations through the batch are counted in
+     *        the feature metrics
+     */
+    FeatureBatch batch(List<String> featureNames, boolean recorded) {
+        if (featureNames == null) {
+            return new FeatureBatch(version(), names, plans, recorded);
+        }
+        String[] selected = featureNames.toArray(new String[0]);
+        FeatureEvaluationPlan[] selectedPlans = new FeatureEvaluationPlan[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            selectedPlans[i] = getPlan(selected[i]);
+        }
+        return new FeatureBatch(version(), selected, selectedPlans, recorded);
+    }
+
+    /**
+     * Evaluates every feature in the snapshot for one context.
+     */
+    FeatureEvaluationResult evaluateAll(FeatureContext ctx) {
+        boolean[] values = new boolean[plans.length];
+        for (int i = 0; i < plans.length; i++) {
+            values[i] = plans[i].evaluate(ctx);
+        }
+        return new FeatureEvaluationResult(version(), names, index, values);
+    }
+
+    /**
+     * @return the time until which a result of {@link #evaluateAll} may be cached
+     */
+    long cacheableUntil(long nowMillis) {
+        long until = nextBoundary;
+        if (nowMillis < until) {
+            return until; // no filter changes its result before this boundary
+        }
+        until = Long.MAX_VALUE;
+        for (FeatureEvaluationPlan plan : plans) {
+            until = Math.min(until, plan.cacheableUntil(nowMillis));
+        }
+        nextBoundary = until;
+        return until;
+    }
+
+    /**
+     * @return the problems of every quarantined feature, by feature key
+     */
+    Map<String, List<String>> quarantined() {
+        Map<String, List<String>> quarantined = new LinkedHashMap<>();
+        for (int i = 0; i < plans.length; i++) {
+            if (!plans[i].getProblems().isEmpty()) {
+                quarantined.put(names[i], plans[i].getProblems());
+            }
+        }
+        return quarantined;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    long version() {
+        return snapshot != null ? snapshot.getVersion() : 0;
+    }
+}
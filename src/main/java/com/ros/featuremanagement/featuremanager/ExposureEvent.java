@@ -0,0 +1,75 @@
+package com.ros.featuremanagement.featuremanager;
+
+/**
+ * One exposure: the value of a feature that was returned for a user.
+ */
+public final class ExposureEvent {
+
+    /** Where the value was returned. */
+    public enum Source {
+        /** {@link FeatureManager#isEnabled}, called by the application. */
+        IS_ENABLED,
+        /** All features of a context, returned by {@code GET /features}. */
+        ALL_FEATURES,
+        /** A value pushed to a Server-Sent Events stream. */
+        STREAM,
+        /** A value returned by {@code POST /features/evaluate}. */
+        BATCH
+    }
+
+    private final long timestamp;
+    private final String featureName;
+    private final String userId;
+    private final boolean enabled;
+    private final long version;
+    private final Source source;
+
+    public ExposureEvent(long timestamp, String featureName, String userId, boolean enabled, long version) {
+        this(timestamp, featureName, userId, enabled, version, Source.IS_ENABLED);
+    }
+
+    public ExposureEvent(long timestamp, String featureName, String userId, boolean enabled, long version, Source source) {
+        this.timestamp = timestamp;
+        this.featureName = featureName;
+        this.userId = userId;
+        this.enabled = enabled;
+        this.version = version;
+        this.source = source;
+    }
+
+    /**
+     * @return the time of the evaluation, in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getFeatureName() {
+        return featureName;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the version of the snapshot the feature was evaluated against
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "ExposureEvent{" + featureName + '=' + enabled + " for " + userId
+                + ", version=" + version + ", source=" + source + ", timestamp=" + timestamp + '}';
+    }
+}
@@ -0,0 +1,254 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous, batched log of feature exposures (which user saw which
+ * value of a flag), enabled with {@link FeatureManager#setExposureLogger}.
+ *
+ * <p>Request threads never block and never do I/O:
+ * <ul>
+ *     <li>Exposures are de-duplicated per (user, feature, value) within a
+ *     fixed time window, using a fixed-size table of hashes. The check is
+ *     approximate: a colliding entry may cause an exposure to be logged again,
+ *     but never to be lost because of another user.</li>
+ *     <li>New exposures are published to a bounded lock-free ring buffer
+ *     (many producers, one consumer). When the buffer is full the exposure is
+ *     dropped and counted in {@link #getDropped()}.</li>
+ * </ul>
+ *
+ * <p>A daemon writer thread, started by {@link #start()}, drains the buffer
+ * in batches of up to {@code batchSize} events and hands them to the
+ * {@link ExposureSink}; it wakes up at least every {@code flushInterval}.
+ * Exposures logged before {@code start()} wait in the buffer.
+ * {@link #close()} writes the remaining events and closes the sink.
+ */
+public class ExposureLogger implements AutoCloseable {
+
+    private final ExposureSink sink;
+    private final int mask;
+    private final AtomicReferenceArray<ExposureEvent> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final AtomicLongArray seen;
+    private final int seenMask;
+    private final long windowMillis;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Creates a logger with a 65536-entry buffer, batches of 1024, a one-second
+     * flush interval and a ten-minute de-duplication window.
+     */
+    public ExposureLogger(ExposureSink sink) {
+        this(sink, 1 << 16, 1024, Duration.ofSeconds(1), Duration.ofMinutes(10));
+    }
+
+    /**
+     * @param sink destination of the exposure batches
+     * @param capacity ring buffer size, rounded up to a power of two; also the
+     *        size of the de-duplication table
+     * @param batchSize maximum number of events per sink write
+     * @param flushInterval maximum time an event waits in the buffer
+     * @param dedupWindow window within which repeated exposures are logged once;
+     *        zero disables de-duplication
+     */
+    public ExposureLogger(ExposureSink sink, int capacity, int batchSize, Duration flushInterval, Duration dedupWindow) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity * 2 - 1));
+        this.sink = sink;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.windowMillis = dedupWindow.toMillis();
+        this.seen = new AtomicLongArray(windowMillis > 0 ? size : 1);
+        this.seenMask = seen.length() - 1;
+
+        this.writer = new Thread(this::drainLoop, "feature-exposure-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread. Calling it again, or after {@link #close()},
+     * has no effect.
+     *
+     * @return this logger
+     */
+    public synchronized ExposureLogger start() {
+        if (!closed && writer.getState() == Thread.State.NEW) {
+            writer.start();
+        }
+        return this;
+    }
+
+    /**
+     * Records an exposure from {@link FeatureManager#isEnabled}; see
+     * {@link #log(String, FeatureContext, boolean, long, ExposureEvent.Source)}.
+     */
+    public void log(String featureName, FeatureContext ctx, boolean enabled, long version) {
+        log(featureName, ctx, enabled, version, ExposureEvent.Source.IS_ENABLED);
+    }
+
+    /**
+     * Records an exposure. Never blocks; returns immediately if the exposure
+     * is a duplicate or the buffer is full. De-duplication ignores the source.
+     */
+    public void log(String featureName, FeatureContext ctx, boolean enabled, long version, ExposureEvent.Source source) {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (windowMillis > 0 && isDuplicate(featureName, ctx, enabled, now)) {
+            deduplicated.increment();
+            return;
+        }
+        ExposureEvent event = new ExposureEvent(now, featureName, ctx.getUserId(), enabled, version, source);
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                dropped.increment();
+                return;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), event);
+                published.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the same exposure was already logged in the current window
+     */
+    private boolean isDuplicate(String featureName, FeatureContext ctx, boolean enabled, long now) {
+        long h = FeatureHashing.hash(ctx.getUserHash(), featureName);
+        h = FeatureHashing.mix(h + (enabled ? 1 : 2) + (now / windowMillis) * 0x9E3779B97F4A7C15L);
+        long tag = h | 1; // 0 marks an empty slot
+        int i = (int) (h >>> 32) & seenMask;
+        if (seen.get(i) == tag) {
+            return true;
+        }
+        seen.lazySet(i, tag);
+        return false;
+    }
+
+    private void drainLoop() {
+        List<ExposureEvent> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            if (drain(batch) == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        while (drain(batch) > 0) {
+            // write what is left after close()
+        }
+    }
+
+    /**
+     * Moves up to one batch from the buffer to the sink.
+     *
+     * @return the number of events taken from the buffer
+     */
+    private int drain(List<ExposureEvent> batch) {
+        long h = head.get();
+        long available = Math.min(tail.get() - h, batchSize);
+        int taken = 0;
+        for (; taken < available; taken++) {
+            int slot = (int) ((h + taken) & mask);
+            ExposureEvent event = slots.get(slot);
+            if (event == null) {
+                break; // claimed but not yet published
+            }
+            slots.lazySet(slot, null);
+            batch.add(event);
+        }
+        head.set(h + taken);
+        if (taken > 0) {
+            try {
+                sink.write(batch);
+                written.add(taken);
+            } catch (IOException | RuntimeException e) {
+                failed.add(taken);
+                System.err.println("Failed to write " + taken + " feature exposures: " + e.getMessage());
+            }
+            batch.clear();
+        }
+        return taken;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * @return exposures skipped because they were already logged in the current window
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * @return exposures dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return exposures lost because the sink failed to write them
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops accepting exposures, writes the buffered ones and closes the sink.
+     */
+    @Override
+    public void close() throws IOException {
+        boolean started;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            started = writer.getState() != Thread.State.NEW;
+        }
+        if (started) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            drainLoop(); // never started: write the buffered events here
+        }
+        sink.close();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of exposure events written by an {@link ExposureLogger}.
+ *
+ * <p>Called from the logger's single writer thread only, so implementations
+ * need not be thread-safe.
+ */
+public interface ExposureSink extends AutoCloseable {
+
+    /**
+     * Writes one batch of events. The list is only valid during the call.
+     *
+     * @throws IOException if the batch could not be written; the batch is then counted as failed
+     */
+    void write(List<ExposureEvent> batch) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,76 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.List;
+
+/**
+ * A fixed list of features resolved against one snapshot, for evaluating
+ * the same features for many contexts (see {@link FeatureManager#batch}).
+ *
+ * <p>Feature names are looked up once when the batch is created; every
+ * {@link #evaluate} call then runs the compiled plans by position. All
+ * contexts are evaluated against the same snapshot, even if the repository
+ * publishes a new one in the meantime. Unknown features evaluate to
+ * {@code false}.
+ */
+public final class FeatureBatch {
+
+    private final long version;
+    private final List<String> names;
+    private final FeatureEvaluationPlan[] plans;
+    private final boolean recorded;
+
+    FeatureBatch(long version, String[] names, FeatureEvaluationPlan[] plans, boolean recorded) {
+        this.version = version;
+        this.names = List.of(names);
+        this.plans = plans;
+        this.recorded = recorded;
+    }
+
+    /**
+     * @return the version of the snapshot the features are evaluated against
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return whether evaluations through this batch are counted in the
+     *         feature metrics; batches the library evaluates on its own
+     *         behalf are not, and neither are their values logged as exposures
+     */
+    boolean isRecorded() {
+        return recorded;
+    }
+
+    /**
+     * @return the feature names, in the order of the evaluated values
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Evaluates the batch's features for one context.
+     *
+     * @param ctx the context containing user, roles, and permissions
+     * @param values receives the value of feature {@code i} at index {@code i};
+     *        must be at least {@link #getNames()}{@code .size()} long
+     */
+    public void evaluate(FeatureContext ctx, boolean[] values) {
+        for (int i = 0; i < plans.length; i++) {
+            FeatureEvaluationPlan plan = plans[i];
+            values[i] = plan != null && (recorded ? plan.evaluate(ctx) : plan.evaluateUnrecorded(ctx));
+        }
+    }
+
+    /**
+     * Evaluates the batch's features for one context.
+     *
+     * @return the value of feature {@code i} at index {@code i}
+     */
+    public boolean[] evaluate(FeatureContext ctx) {
+        boolean[] values = new boolean[plans.length];
+        evaluate(ctx, values);
+        return values;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.List;
+
+/**
+ * Request body of {@code POST /features/evaluate}.
+ *
+ * <pre>
+ * {
+ *   "features": ["FeatureA", "FeatureB"],
+ *   "contexts": [
+ *     {"userId": "alice", "roles": ["admin"], "permissions": ["invoice.read"]},
+ *     {"userId": "bob"}
+ *   ]
+ * }
+ * </pre>
+ *
+ * <p>{@code features} is optional; without it all features are evaluated.
+ */
+public class FeatureBatchRequest {
+
+    private List<String> features;
+    private List<Context> contexts;
+
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    public void setFeatures(List<String> features) {
+        this.features = features;
+    }
+
+    public List<Context> getContexts() {
+        return contexts;
+    }
+
+    public void setContexts(List<Context> contexts) {
+        this.contexts = contexts;
+    }
+
+    /** One context to evaluate, as in the X-User-Id, X-Roles and X-Permissions headers. */
+    public static class Context {
+
+        private String userId;
+        private List<String> roles;
+        private List<String> permissions;
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+
+        public List<String> getPermissions() {
+            return permissions;
+        }
+
+        public void setPermissions(List<String> permissions) {
+            this.permissions = permissions;
+        }
+
+        FeatureContext toFeatureContext() {
+            return new FeatureContext(userId,
+                    roles != null ? roles : List.of(),
+                    permissions != null ? permissions : List.of());
+        }
+    }
+}
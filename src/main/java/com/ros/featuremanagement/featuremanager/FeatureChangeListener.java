@@ -0,0 +1,19 @@
+package com.ros.featuremanagement.featuremanager;
+
+/**
+ * Receives the changes between consecutive feature snapshots.
+ *
+ * <p>Listeners are registered with {@link FeatureManager#addChangeListener}
+ * and notified asynchronously, off the refresh thread, in the order in which
+ * the snapshots were published.
+ */
+@FunctionalInterface
+public interface FeatureChangeListener {
+
+    /**
+     * Called after the manager switched to a new snapshot.
+     *
+     * @param diff the features added, removed and modified by the new snapshot
+     */
+    void onChange(FeatureSnapshotDiff diff);
+}
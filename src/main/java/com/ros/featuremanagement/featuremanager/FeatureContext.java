@@ -1,15 +1,28 @@
 package com.ros.featuremanagement.featuremanager;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public class FeatureContext {
+    private static final long ROLE_SEED = FeatureHashing.hash("role:");
+    private static final long PERMISSION_SEED = FeatureHashing.hash("permission:");
+
     private final String userId;
     private final List<String> roles;
     private final List<String> permissions;
-    
+
+    // Derived on first use and shared by all filters evaluated for this context
+    private Set<String> roleSet;
+    private Set<String> permissionSet;
+    private volatile long userHash;
+    private volatile long fingerprint;
+    private volatile EncodedNames roleBits;
+    private volatile EncodedNames permissionBits;
+
     public FeatureContext(String userId, List<String> roles, List<String> permissions) {
         this.userId = userId;
         this.roles = roles != null ? roles : Collections.emptyList();
@@ -33,5 +46,121 @@ public class FeatureContext {
     }
     public List<String> getPermissions() {
         return permissions;
-    }    
+    }
+
+    /**
+     * Returns the roles as a set for constant-time membership checks.
+     * Computed once per context.
+     */
+    public Set<String> getRoleSet() {
+        Set<String> set = roleSet;
+        if (set == null) {
+            set = toSet(roles);
+            roleSet = set;
+        }
+        return set;
+    }
+
+    /**
+     * Returns the permissions as a set for constant-time membership checks.
+     * Computed once per context.
+     */
+    public Set<String> getPermissionSet() {
+        Set<String> set = permissionSet;
+        if (set == null) {
+            set = toSet(permissions);
+            permissionSet = set;
+        }
+        return set;
+    }
+
+    /**
+     * Returns the roles encoded against {@link FeatureDictionary#global()}.
+     * Recomputed only when the dictionary has grown since the last call.
+     * The returned bits must not be modified.
+     */
+    public BitSet getRoleBits() {
+        EncodedNames encoded = roleBits;
+        if (encoded == null || encoded.dictionarySize != FeatureDictionary.global().size()) {
+            encoded = EncodedNames.encode(getRoleSet());
+            roleBits = encoded;
+        }
+        return encoded.bits;
+    }
+
+    /**
+     * Returns the permissions encoded against {@link FeatureDictionary#global()}.
+     * Recomputed only when the dictionary has grown since the last call.
+     * The returned bits must not be modified.
+     */
+    public BitSet getPermissionBits() {
+        EncodedNames encoded = permissionBits;
+        if (encoded == null || encoded.dictionarySize != FeatureDictionary.global().size()) {
+            encoded = EncodedNames.encode(getPermissionSet());
+            permissionBits = encoded;
+        }
+        return encoded.bits;
+    }
+
+    /**
+     * Returns a stable 64-bit hash of the user id, see {@link FeatureHashing#hash(CharSequence)}.
+     * Computed once per context.
+     */
+    public long getUserHash() {
+        long h = userHash;
+        if (h == 0) {
+            h = FeatureHashing.hash(userId);
+            userHash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Returns a compact 64-bit fingerprint of the user id, roles and permissions.
+     *
+     * <p>Independent of the order (and duplicates) of roles and permissions,
+     * so equivalent contexts share a fingerprint. Used as the hash of
+     * result-cache keys; equality is still decided on the full values.
+     * Computed once per context.
+     */
+    public long getFingerprint() {
+        long f = fingerprint;
+        if (f == 0) {
+            long h = FeatureHashing.mix(getUserHash());
+            for (String role : getRoleSet()) {
+                h += FeatureHashing.mix(FeatureHashing.hash(ROLE_SEED, role));
+            }
+            for (String permission : getPermissionSet()) {
+                h += FeatureHashing.mix(FeatureHashing.hash(PERMISSION_SEED, permission));
+            }
+            f = FeatureHashing.mix(h);
+            fingerprint = f;
+        }
+        return f;
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class EncodedNames {
+        private final int dictionarySize;
+        private final BitSet bits;
+
+        private EncodedNames(int dictionarySize, BitSet bits) {
+            this.dictionarySize = dictionarySize;
+            this.bits = bits;
+        }
+
+        static EncodedNames encode(Set<String> names) {
+            FeatureDictionary dictionary = FeatureDictionary.global();
+            int size = dictionary.size();
+            return new EncodedNames(size, dictionary.lookupAll(names));
+        }
+    }
 }
@@ -1,10 +1,19 @@
 package com.ros.featuremanagement.featuremanager;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -13,25 +22,34 @@ import java.util.stream.Collectors;
 public class FeatureController {
 
     private  FeatureManager featureManager;
+    private final FeatureStreamRegistry streams;
+    private final JsonFactory jsonFactory = new JsonFactory();
     @Autowired
     FeatureContext fc;
 
-    public FeatureController(FeatureManager fm) {
+    public FeatureController(FeatureManager fm, FeatureStreamRegistry streams) {
         //InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
         //featureManager = new FeatureManagerConfig().getDefaultFeatures(repo);
         this.featureManager = fm;
+        this.streams = streams;
     }
 
     /**
      * GET /features/{name}
      * Check if a single feature is enabled for the current user context.
      * note: user context is injected from FeatureContextConfig.
+     * Answers If-None-Match with 304 when the ETag still matches (see getAllFeatures).
      */
     @GetMapping("/{name}")
-    public boolean isFeatureEnabled(
-            @PathVariable String name) {
+    public ResponseEntity<Boolean> isFeatureEnabled(
+            @PathVariable String name,
+            WebRequest request) {
         //System.out.println("user: " + fc.getUserId());
-        return featureManager.isEnabled(name, fc);
+        String etag = etag(fc);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return cacheable(etag).body(featureManager.isEnabled(name, fc));
     }
 
     /**
@@ -55,26 +73,147 @@ public class FeatureController {
     /**
      * GET /features
      * Return all features and their enabled state for the current user context.
+     * The response carries an ETag derived from the manager instance, the
+     * snapshot version and the context fingerprint (see
+     * {@link FeatureManager#getEvaluationTag}); a matching If-None-Match is answered with 304
+     * without evaluating any feature. When a filter is not cacheable there is no ETag and
+     * every request is evaluated.
+     * Returned values are logged as exposures when exposure logging is enabled.
      */
     @GetMapping
-    public Map<String, Boolean> getAllFeatures(
+    public ResponseEntity<Map<String, Boolean>> getAllFeatures(
             @RequestHeader("X-User-Id") String userId,
             @RequestHeader(value = "X-Roles", required = false) String rolesHeader,
-            @RequestHeader(value = "X-Permissions", required = false) String permissionsHeader) {
+            @RequestHeader(value = "X-Permissions", required = false) String permissionsHeader,
+            WebRequest request) {
 
               
         List<String> roles = parseHeader(rolesHeader);
         List<String> permissions = parseHeader(permissionsHeader);
 
-        System.out.println("getAllFeatures() " + roles + " permissions " + permissions);  
-
         FeatureContext ctx = new FeatureContext(userId, roles, permissions);
 
-        return featureManager.getAllFeatures(ctx).keySet().stream()
-                .collect(Collectors.toMap(
-                        featureName -> featureName,
-                        featureName -> featureManager.isEnabled(featureName, ctx)
-                ));
+        String etag = etag(ctx);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        FeatureEvaluationResult result = featureManager.evaluateAll(ctx);
+        featureManager.logExposures(ctx, result, result.getVersion(), ExposureEvent.Source.ALL_FEATURES);
+        return cacheable(etag).body(result);
+    }
+
+    /**
+     * GET /features/stream
+     * Server-Sent Events stream of feature changes for the current user context.
+     * Sends a "snapshot" event with all features, then a "change" event with
+     * only the features whose value changed for this context after a refresh.
+     * Event ids are snapshot versions; a reconnecting client that sends the
+     * current version as Last-Event-ID does not receive the snapshot again.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFeatures(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "X-Roles", required = false) String rolesHeader,
+            @RequestHeader(value = "X-Permissions", required = false) String permissionsHeader,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        FeatureContext ctx = new FeatureContext(userId, parseHeader(rolesHeader), parseHeader(permissionsHeader));
+        return streams.subscribe(ctx, lastEventId);
+    }
+
+    /**
+     * POST /features/evaluate
+     * Evaluate a set of features (or all features) for many contexts in one call.
+     * The request body is a {@link FeatureBatchRequest}. Features are resolved once
+     * and every context is evaluated against the same snapshot. The response is
+     * streamed as it is produced, one positional array per context in request order:
+     * {"version":3,"features":["A","B"],"results":[[true,false],[false,false]]}
+     * A null or blank feature name, or a null context, is answered with 400.
+     * Returned values are logged as exposures when exposure logging is enabled.
+     */
+    @PostMapping("/evaluate")
+    public ResponseEntity<StreamingResponseBody> evaluateBatch(@RequestBody FeatureBatchRequest request) {
+        String invalid = validate(request);
+        if (invalid != null) {
+            byte[] message = invalid.getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+        }
+        List<FeatureBatchRequest.Context> contexts = request.getContexts() != null ? request.getContexts() : List.of();
+        FeatureBatch batch = featureManager.batch(request.getFeatures());
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+                json.writeStartObject();
+                json.writeNumberField("version", batch.getVersion());
+                json.writeArrayFieldStart("features");
+                for (String name : batch.getNames()) {
+                    json.writeString(name);
+                }
+                json.writeEndArray();
+
+                json.writeArrayFieldStart("results");
+                boolean[] values = new boolean[batch.getNames().size()];
+                for (FeatureBatchRequest.Context context : contexts) {
+                    FeatureContext ctx = context.toFeatureContext();
+                    batch.evaluate(ctx, values);
+                    featureManager.logExposures(ctx, batch, values, ExposureEvent.Source.BATCH);
+                    json.writeStartArray();
+                    for (boolean value : values) {
+                        json.writeBoolean(value);
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * @return why the batch request cannot be evaluated, or {@code null} if it is valid
+     */
+    private static String validate(FeatureBatchRequest request) {
+        List<String> features = request.getFeatures();
+        if (features != null) {
+            for (int i = 0; i < features.size(); i++) {
+                if (features.get(i) == null || features.get(i).isBlank()) {
+                    return "features[" + i + "] must be a non-blank feature name";
+                }
+            }
+        }
+        List<FeatureBatchRequest.Context> contexts = request.getContexts();
+        if (contexts != null) {
+            for (int i = 0; i < contexts.size(); i++) {
+                if (contexts.get(i) == null) {
+                    return "contexts[" + i + "] must not be null";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the quoted ETag for the results of {@code ctx}, or {@code null} if they cannot be tagged
+     */
+    private String etag(FeatureContext ctx) {
+        String tag = featureManager.getEvaluationTag(ctx);
+        return tag != null ? "\"" + tag + "\"" : null;
+    }
+
+    /**
+     * Lets browsers and shared caches store the response but revalidate it on
+     * every use; responses differ per caller, hence the Vary headers. Without
+     * an ETag the response must not be stored at all.
+     */
+    private static ResponseEntity.BodyBuilder cacheable(String etag) {
+        if (etag == null) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore());
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy("X-User-Id", "X-Roles", "X-Permissions");
     }
 
     private List<String> parseHeader(String headerValue) {
@@ -1,22 +1,33 @@
 package com.ros.featuremanagement.featuremanager;
 
 import java.util.List;
+import java.util.Objects;
 
 public class FeatureDefinition {
     private final String name;
     private final boolean enabled;
     private final List<FilterConfig> filters;
+    private final FeatureRule rule;
 
     public FeatureDefinition(String name, List<FilterConfig> filters) {
         this.name = name;
         this.enabled = true;
         this.filters = filters;
+        this.rule = null;
     }
 
     public FeatureDefinition(String name, boolean enabled, List<FilterConfig> filters) {
+        this(name, enabled, filters, null);
+    }
+
+    /**
+     * @param rule a rule deciding the feature instead of {@code filters}; may be {@code null}
+     */
+    public FeatureDefinition(String name, boolean enabled, List<FilterConfig> filters, FeatureRule rule) {
         this.name = name;
         this.enabled = enabled;
         this.filters = filters;
+        this.rule = rule;
     }
 
     public String getName() {
@@ -30,4 +41,28 @@ public class FeatureDefinition {
     public List<FilterConfig> getFilters() {
         return filters;
     }
+
+    /**
+     * @return the rule deciding the feature, or {@code null} if its filters do;
+     *         when set, the filters are ignored
+     */
+    public FeatureRule getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FeatureDefinition)) return false;
+        FeatureDefinition other = (FeatureDefinition) o;
+        return enabled == other.enabled
+                && Objects.equals(name, other.name)
+                && Objects.equals(filters, other.filters)
+                && Objects.equals(rule, other.rule);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, enabled, filters, rule);
+    }
 }
@@ -0,0 +1,94 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global dictionary that assigns a small integer id to every role, group and
+ * permission name referenced by a compiled feature definition.
+ *
+ * <p>Names are interned when filters are bound (i.e. when a snapshot is
+ * compiled). A {@link FeatureContext} looks its roles and permissions up once
+ * and carries them as a {@link BitSet}, so role, group and permission checks
+ * become word-wide bit operations. Names that were never interned cannot match
+ * any filter and are simply left out of the context's bits.
+ *
+ * <p>Ids are never reused, so the dictionary only grows with the set of names
+ * that appear in feature configuration.
+ */
+public final class FeatureDictionary {
+
+    private static final FeatureDictionary GLOBAL = new FeatureDictionary();
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    private FeatureDictionary() {
+    }
+
+    public static FeatureDictionary global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the id for {@code name}, assigning a new one if needed.
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id == null) {
+                id = size;
+                ids.put(name, id);
+                size = id + 1;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the id for {@code name}, or -1 if it has never been interned.
+     */
+    public int lookup(String name) {
+        Integer id = name != null ? ids.get(name) : null;
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return the number of interned names; changes whenever a new name is interned
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Interns all names and returns them as a bit mask.
+     */
+    public BitSet internAll(Collection<String> names) {
+        BitSet bits = new BitSet();
+        for (String name : names) {
+            if (name != null) {
+                bits.set(intern(name));
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the bits of the names that are already interned.
+     */
+    public BitSet lookupAll(Collection<String> names) {
+        BitSet bits = new BitSet();
+        for (String name : names) {
+            int id = lookup(name);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+}
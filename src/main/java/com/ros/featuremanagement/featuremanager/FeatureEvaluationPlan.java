@@ -0,0 +1,339 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-compiled form of a {@link FeatureDefinition}.
+ *
+ * <p>Each configured filter is resolved by name and bound to its parameters
+ * once, when the plan is built. Evaluating the plan is then a plain loop over
+ * the bound filters with no map lookups or parameter parsing.
+ *
+ * <p>Filter parameters are validated against each filter's
+ * {@link FilterSchema} before binding. A definition with invalid parameters
+ * is quarantined: its plan records the problems and evaluates to false, or,
+ * when it replaces a valid definition, keeps serving the previous filters.
+ *
+ * <p>A definition with a {@link FeatureRule} compiles to a single filter,
+ * the rule's predicate tree built by {@link CompiledRule}.
+ *
+ * <p>Filters are combined with OR, so the plan runs them in order of
+ * expected cost rather than declaration order: by {@link FilterCost} weight
+ * divided by the filter's hit rate, so that cheap filters likely to match
+ * run first. Hit rates are counted on sampled evaluations and the order is
+ * recomputed every {@value #REORDER_INTERVAL} samples. Filters that are not
+ * {@link BoundFilter#isReorderable() reorderable} stay in place and split
+ * the others into groups that are only reordered among themselves.
+ *
+ * <p>The plan also holds its feature's and filters' {@link FeatureMetrics}
+ * statistics, so recording an evaluation is a counter increment.
+ */
+final class FeatureEvaluationPlan {
+
+    /** Sampled evaluations between two reorderings of the filters; a power of two. */
+    static final int REORDER_INTERVAL = 256;
+
+    /** Name under which the latency of a compiled rule is recorded in {@link FeatureMetrics}. */
+    static final String RULE = "rule";
+
+    private static final Comparator<Slot> BY_EXPECTED_COST = Comparator.comparingDouble(slot -> slot.rank);
+
+    private final FeatureDefinition definition;
+    private final boolean enabled;
+    private final Slot[] declared;
+    private final boolean adaptive;
+    private final FeatureMetrics metrics;
+    private final FeatureMetrics.FlagStats stats;
+    private final List<String> problems;
+    /** The valid definition whose filters this plan runs; {@code null} if there is none. */
+    private final FeatureDefinition served;
+    private final AtomicInteger samples = new AtomicInteger();
+
+    /** The bound filters in evaluation order. */
+    private volatile BoundFilter[] filters;
+
+    /** The slots of {@link #filters}, in the same order. */
+    private volatile Slot[] order;
+
+    private FeatureEvaluationPlan(FeatureDefinition definition, boolean enabled, Slot[] declared, Slot[] order,
+                                  FeatureMetrics metrics, FeatureMetrics.FlagStats stats, List<String> problems,
+                                  FeatureDefinition served) {
+        this.definition = definition;
+        this.enabled = enabled;
+        this.declared = declared;
+        this.adaptive = canReorder(declared);
+        this.metrics = metrics;
+        this.stats = stats;
+        this.problems = problems;
+        this.served = served;
+        this.order = order;
+        this.filters = filtersOf(order);
+    }
+
+    /**
+     * Compiles a feature definition against the given filter set.
+     * A definition whose filter parameters fail validation or binding is
+     * quarantined and evaluates to false.
+     */
+    static FeatureEvaluationPlan compile(
+            String key,
+            FeatureDefinition definition,
+            Map<String, FeatureFilter> filters,
+            FeatureFilter defaultFilter,
+            FeatureMetrics metrics) {
+        List<String> problems = new ArrayList<>();
+        Slot[] slots;
+
+        if (definition.getRule() != null) {
+            BoundFilter rule = CompiledRule.compile(definition.getRule(),
+                    config -> bind(definition, config, filters, defaultFilter, problems));
+            slots = new Slot[] { new Slot(rule, metrics.filter(RULE)) };
+        } else {
+            List<FilterConfig> configs = definition.getFilters() != null ? definition.getFilters() : List.of();
+            slots = new Slot[configs.size()];
+            for (int i = 0; i < slots.length; i++) {
+                FilterConfig config = configs.get(i);
+                BoundFilter bound = bind(definition, config, filters, defaultFilter, problems);
+                if (bound != null) {
+                    slots[i] = new Slot(bound, metrics.filter(config.getName()));
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            System.err.println("Quarantined feature " + key + ": " + String.join("; ", problems));
+            return new FeatureEvaluationPlan(definition, false, new Slot[0], new Slot[0],
+                    metrics, metrics.flag(key), List.copyOf(problems), null);
+        }
+        return new FeatureEvaluationPlan(definition, definition.getEnabled(), slots, arrange(slots),
+                metrics, metrics.flag(key), List.of(), definition);
+    }
+
+    /**
+     * Validates and binds one filter of a definition.
+     *
+     * @return the bound filter, or {@code null} if it is invalid (reported in {@code problems})
+     */
+    private static BoundFilter bind(
+            FeatureDefinition definition,
+            FilterConfig config,
+            Map<String, FeatureFilter> filters,
+            FeatureFilter defaultFilter,
+            List<String> problems) {
+        FeatureFilter filter = filters.getOrDefault(config.getName(), defaultFilter);
+        FilterSchema schema = filter.getSchema();
+        if (schema != null) {
+            List<String> errors = schema.validate(config.getParameters());
+            if (!errors.isEmpty()) {
+                for (String error : errors) {
+                    problems.add(config.getName() + ": " + error);
+                }
+                return null;
+            }
+        }
+        try {
+            return filter.bind(definition.getName(), config.getParameters());
+        } catch (RuntimeException e) {
+            problems.add(config.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns a plan for {@code other}, reusing the bound filters (and their
+     * order) when the definition is unchanged.
+     *
+     * <p>If {@code other} is invalid, the returned plan keeps serving the
+     * filters of the last valid definition, however many invalid definitions
+     * followed it. It is only enabled if both that definition and
+     * {@code other} are, so disabling a feature always takes effect.
+     */
+    FeatureEvaluationPlan rebind(
+            String key,
+            FeatureDefinition other,
+            Map<String, FeatureFilter> filters,
+            FeatureFilter defaultFilter) {
+        if (other == definition) {
+            return this;
+        }
+        if (definition.equals(other)) {
+            return new FeatureEvaluationPlan(other, enabled, declared, order, metrics, stats, problems, served);
+        }
+        FeatureEvaluationPlan compiled = compile(key, other, filters, defaultFilter, metrics);
+        if (compiled.problems.isEmpty() || served == null) {
+            return compiled;
+        }
+        List<String> kept = new ArrayList<>(compiled.problems);
+        kept.add("serving the previous definition");
+        return new FeatureEvaluationPlan(other, served.getEnabled() && other.getEnabled(), declared, order,
+                metrics, stats, List.copyOf(kept), served);
+    }
+
+    /**
+     * @return why the definition was quarantined; empty if it compiled cleanly
+     */
+    List<String> getProblems() {
+        return problems;
+    }
+
+    FeatureDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the time until which a result of this plan may be cached
+     */
+    long cacheableUntil(long nowMillis) {
+        long until = Long.MAX_VALUE;
+        if (enabled) {
+            for (BoundFilter filter : filters) {
+                until = Math.min(until, filter.cacheableUntil(nowMillis));
+            }
+        }
+        return until;
+    }
+
+    boolean evaluate(FeatureContext ctx) {
+        boolean result = enabled && (metrics.sample() ? evaluateTimed(ctx) : evaluateFilters(ctx));
+        stats.record(result);
+        return result;
+    }
+
+    /**
+     * Evaluates the plan without recording statistics or sampling filter
+     * latencies, for evaluations the library makes on its own behalf.
+     */
+    boolean evaluateUnrecorded(FeatureContext ctx) {
+        return enabled && evaluateFilters(ctx);
+    }
+
+    private boolean evaluateFilters(FeatureContext ctx) {
+        for (BoundFilter filter : filters) {
+            if (filter.evaluate(ctx)) {
+                return true; // short-circuit success
+            }
+        }
+        return false;
+    }
+
+    private boolean evaluateTimed(FeatureContext ctx) {
+        boolean result = false;
+        for (Slot slot : order) {
+            long start = System.nanoTime();
+            boolean matched = slot.filter.evaluate(ctx);
+            slot.stats.record(System.nanoTime() - start);
+            slot.reached.increment();
+            if (matched) {
+                slot.matched.increment();
+                result = true;
+                break;
+            }
+        }
+        if (adaptive && (samples.incrementAndGet() & (REORDER_INTERVAL - 1)) == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    /**
+     * Folds the hit counts sampled since the last call into each filter's
+     * rank and switches to the resulting order.
+     */
+    private void reorder() {
+        // slots are shared with plans rebound from this one, so lock on them
+        synchronized (declared) {
+            for (Slot slot : declared) {
+                slot.update();
+            }
+            Slot[] arranged = arrange(declared);
+            order = arranged;
+            filters = filtersOf(arranged);
+        }
+    }
+
+    /**
+     * Sorts each run of reorderable slots by rank, leaving the other slots in
+     * their declared positions.
+     */
+    private static Slot[] arrange(Slot[] declared) {
+        Slot[] arranged = declared.clone();
+        int start = 0;
+        for (int i = 0; i <= arranged.length; i++) {
+            if (i == arranged.length || !arranged[i].reorderable) {
+                Arrays.sort(arranged, start, i, BY_EXPECTED_COST); // stable: ties keep declaration order
+                start = i + 1;
+            }
+        }
+        return arranged;
+    }
+
+    private static boolean canReorder(Slot[] slots) {
+        int run = 0;
+        for (Slot slot : slots) {
+            run = slot.reorderable ? run + 1 : 0;
+            if (run > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BoundFilter[] filtersOf(Slot[] slots) {
+        BoundFilter[] filters = new BoundFilter[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            filters[i] = slots[i].filter;
+        }
+        return filters;
+    }
+
+    /**
+     * One bound filter of the plan with its ordering statistics.
+     */
+    private static final class Slot {
+        final BoundFilter filter;
+        final FeatureMetrics.FilterStats stats;
+        final int weight;
+        final boolean reorderable;
+
+        /** Sampled evaluations that reached this filter, since the last update. */
+        final LongAdder reached = new LongAdder();
+        /** Sampled evaluations that this filter matched, since the last update. */
+        final LongAdder matched = new LongAdder();
+
+        // decayed totals and the resulting rank; guarded by the plan's declared slots
+        double reachedTotal;
+        double matchedTotal;
+        double rank;
+
+        Slot(BoundFilter filter, FeatureMetrics.FilterStats stats) {
+            this.filter = filter;
+            this.stats = stats;
+            this.weight = filter.getCost().getWeight();
+            this.reorderable = filter.isReorderable();
+            this.rank = rank();
+        }
+
+        /**
+         * Halves the previous totals, so that the order follows changes in
+         * traffic, and adds the counts sampled since the last update.
+         */
+        void update() {
+            reachedTotal = reachedTotal / 2 + reached.sumThenReset();
+            matchedTotal = matchedTotal / 2 + matched.sumThenReset();
+            rank = rank();
+        }
+
+        /**
+         * @return the expected cost of finding a match through this filter;
+         *         the hit rate starts at one half and is smoothed towards it
+         */
+        private double rank() {
+            return weight * (reachedTotal + 2) / (matchedTotal + 1);
+        }
+    }
+}
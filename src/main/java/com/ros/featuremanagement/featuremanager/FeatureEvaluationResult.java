@@ -0,0 +1,90 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The enabled state of every feature in one snapshot for one
+ * {@link FeatureContext}, produced by {@link FeatureManager#evaluateAll}.
+ *
+ * <p>Backed by the snapshot's feature-name array and a parallel
+ * {@code boolean[]}, so building a result allocates a single array
+ * regardless of the number of features. The map is read-only.
+ */
+public final class FeatureEvaluationResult extends AbstractMap<String, Boolean> {
+
+    private final long version;
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final boolean[] values;
+
+    FeatureEvaluationResult(long version, String[] names, Map<String, Integer> index, boolean[] values) {
+        this.version = version;
+        this.names = names;
+        this.index = index;
+        this.values = values;
+    }
+
+    /**
+     * @return the version of the snapshot the features were evaluated against
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEnabled(String featureName) {
+        Integer i = index.get(featureName);
+        return i != null && values[i];
+    }
+
+    @Override
+    public Boolean get(Object key) {
+        Integer i = index.get(key);
+        return i != null ? values[i] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public Set<Entry<String, Boolean>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Boolean>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < names.length;
+                    }
+
+                    @Override
+                    public Entry<String, Boolean> next() {
+                        if (next >= names.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(names[i], values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return names.length;
+            }
+        };
+    }
+}
@@ -5,4 +5,93 @@ import java.util.Map;
 @FunctionalInterface
 public interface FeatureFilter {
     boolean evaluate(FeatureContext context, Map<String, Object> parameters);
+
+    /**
+     * Binds this filter to the parameters of one feature.
+     *
+     * <p>Called once per feature when its definition is compiled. Filters
+     * that can pre-parse their parameters should override this; the default
+     * simply delegates to {@link #evaluate(FeatureContext, Map)} and reports
+     * this filter's {@link #getCost()}, {@link #isReorderable()} and
+     * {@link #isCacheable()}.
+     *
+     * @param featureName the feature the filter belongs to
+     * @param parameters the filter parameters from the feature definition
+     * @return a filter ready to be evaluated against a context
+     */
+    default BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        Map<String, Object> params = parameters != null ? parameters : Map.of();
+        FilterCost cost = getCost();
+        boolean reorderable = isReorderable();
+        boolean cacheable = isCacheable();
+        return new BoundFilter() {
+            @Override
+            public boolean evaluate(FeatureContext context) {
+                return FeatureFilter.this.evaluate(context, params);
+            }
+
+            @Override
+            public long cacheableUntil(long nowMillis) {
+                return cacheable ? Long.MAX_VALUE : nowMillis;
+            }
+
+            @Override
+            public FilterCost getCost() {
+                return cost;
+            }
+
+            @Override
+            public boolean isReorderable() {
+                return reorderable;
+            }
+        };
+    }
+
+    /**
+     * Returns the relative cost of evaluating this filter; see
+     * {@link BoundFilter#getCost()}. Reported by filters bound through the
+     * default {@link #bind}.
+     */
+    default FilterCost getCost() {
+        return FilterCost.MODERATE;
+    }
+
+    /**
+     * Returns whether this filter may be evaluated out of declaration order;
+     * see {@link BoundFilter#isReorderable()}. Reported by filters bound
+     * through the default {@link #bind}.
+     *
+     * <p>Defaults to {@code false}, so existing filters keep running in
+     * declaration order. Filters without side effects may opt in.
+     */
+    default boolean isReorderable() {
+        return false;
+    }
+
+    /**
+     * Returns whether a result of this filter may be cached for as long as
+     * the feature definitions do not change; see
+     * {@link BoundFilter#cacheableUntil(long)}. Reported by filters bound
+     * through the default {@link #bind}.
+     *
+     * <p>Defaults to {@code false}, since a filter may depend on the time,
+     * randomness or external state. Filters whose result depends only on the
+     * context and parameters may opt in.
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Declares the parameters this filter accepts.
+     *
+     * <p>When a schema is returned, parameters are validated against it before
+     * {@link #bind} is called, and features with invalid parameters are
+     * quarantined. {@code null} (the default) skips validation.
+     *
+     * @return the parameter schema, or {@code null} if parameters are not declared
+     */
+    default FilterSchema getSchema() {
+        return null;
+    }
 }
@@ -0,0 +1,52 @@
+package com.ros.featuremanagement.featuremanager;
+
+/**
+ * Fast, allocation-free, non-cryptographic hashing used for stable user
+ * bucketing (e.g. percentage rollouts).
+ *
+ * <p>Strings are hashed with 64-bit FNV-1a over their UTF-16 chars and
+ * combined hashes are finalized with the MurmurHash3 {@code fmix64} step
+ * for good avalanche. Results are stable across JVMs and restarts.
+ */
+public final class FeatureHashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private FeatureHashing() {
+    }
+
+    /**
+     * @return the 64-bit FNV-1a hash of {@code value} ({@code null} hashes like the empty string)
+     */
+    public static long hash(CharSequence value) {
+        return hash(FNV_OFFSET, value);
+    }
+
+    /**
+     * Continues an FNV-1a hash from {@code seed}, so several strings can be
+     * hashed as one without concatenating them.
+     */
+    public static long hash(long seed, CharSequence value) {
+        long h = seed;
+        if (value != null) {
+            for (int i = 0, n = value.length(); i < n; i++) {
+                h ^= value.charAt(i);
+                h *= FNV_PRIME;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
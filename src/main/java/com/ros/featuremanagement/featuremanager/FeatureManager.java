@@ -1,10 +1,20 @@
 package com.ros.featuremanagement.featuremanager;
 
-import java.time.LocalDateTime;
+import com.ros.featuremanagement.featuremanager.impl.AlwaysOnFilter;
+import com.ros.featuremanagement.featuremanager.impl.PercentageFilter;
+import com.ros.featuremanagement.featuremanager.impl.RoleBasedFilter;
+import com.ros.featuremanagement.featuremanager.impl.TargetingFilter;
+import com.ros.featuremanagement.featuremanager.impl.TimeBasedFilter;
+
+import java.security.SecureRandom;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The {@code FeatureManager} provides a central API for evaluating
@@ -25,20 +35,72 @@ import java.util.stream.Collectors;
  *     <li>Custom targeting of features to specific users or user groups.</li>
  * </ul>
  *
+ * <p>Each feature definition is compiled once into a {@link FeatureEvaluationPlan}
+ * in which the filters are resolved and bound to their parameters. Plans are
+ * built per {@link FeatureSnapshot} when features are refreshed (or lazily when
+ * the repository publishes a new snapshot) and only rebuilt for definitions
+ * that changed.
+ *
  * <p>The manager can also refresh feature definitions from the repository
- * on demand.
+ * on demand. Whenever it switches to a new snapshot it computes a
+ * {@link FeatureSnapshotDiff} against the previous one and hands it to the
+ * registered {@link FeatureChangeListener}s on a separate executor.
  */
 public class FeatureManager {
 
     /** The repository used to fetch feature definitions. */
     private final FeatureRepository repository;
 
+    /** Snapshots of a repository that does not publish its own; {@code null} if it does. */
+    private final LegacySnapshots legacySnapshots;
+
     /** Map of feature filter names to filter implementations. */
     private final Map<String, FeatureFilter> filters;
 
     /** The default filter applied when a named filter is not found. */
     private final FeatureFilter defaultFilter;
 
+    /** Default fallback for filter names without an implementation; never matches. */
+    private static final FeatureFilter MISSING_FILTER = new FeatureFilter() {
+        @Override
+        public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+            return false;
+        }
+
+        @Override
+        public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+            return BoundFilter.NEVER;
+        }
+    };
+
+    /** Evaluation plans compiled from the most recent repository snapshot. */
+    private volatile CompiledSnapshot compiled = CompiledSnapshot.EMPTY;
+
+    /**
+     * Random prefix of evaluation tags. Snapshot versions restart at zero in
+     * every process, so the version alone does not identify a flag set across
+     * replicas or restarts.
+     */
+    private final String tagEpoch = Long.toHexString(new SecureRandom().nextLong());
+
+    /** Evaluation and refresh metrics. */
+    private final FeatureMetrics metrics = new FeatureMetrics();
+
+    /** Whether the repository reports its own reloads into {@link #metrics}. */
+    private final boolean reportsRefreshes;
+
+    /** Optional cache of evaluation results; {@code null} when disabled. */
+    private volatile FeatureResultCache resultCache;
+
+    /** Optional exposure log; {@code null} when disabled. */
+    private volatile ExposureLogger exposureLogger;
+
+    /** Listeners notified of snapshot changes. */
+    private final List<FeatureChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /** Executor delivering change notifications; created on first use unless set. */
+    private Executor listenerExecutor;
+
     /**
      * Constructs a FeatureManager with a custom repository, filters, and default filter.
      *
@@ -53,6 +115,8 @@ public class FeatureManager {
         this.repository = repository;
         this.filters = filters;
         this.defaultFilter = defaultFilter;
+        this.legacySnapshots = LegacySnapshots.forRepository(repository);
+        this.reportsRefreshes = recordRefreshes(repository, metrics);
     }
 
     /**
@@ -74,8 +138,21 @@ public class FeatureManager {
             FeatureRepository repository) {
         this.repository = repository;
         this.filters = getDefaultFilters();
-        this.defaultFilter = (ctx, params) -> false;
-    }    
+        this.defaultFilter = MISSING_FILTER;
+        this.legacySnapshots = LegacySnapshots.forRepository(repository);
+        this.reportsRefreshes = recordRefreshes(repository, metrics);
+    }
+
+    /**
+     * Records every reload the repository reports, including ones it starts
+     * on its own, in {@code metrics}.
+     *
+     * @return false if the repository does not report reloads
+     */
+    private static boolean recordRefreshes(FeatureRepository repository, FeatureMetrics metrics) {
+        return repository.addRefreshListener((nanos, failed) ->
+                metrics.recordRefresh(nanos, failed, repository.getSnapshot().size()));
+    }
 
     /**
      * Determines if a specific feature is enabled for the given {@link FeatureContext}.
@@ -83,9 +160,10 @@ public class FeatureManager {
      * <p>The evaluation follows these rules:
      * <ul>
      *     <li>If the feature is not found or is explicitly disabled, returns false.</li>
-     *     <li>Otherwise, iterates through the feature's configured filters and
-     *     applies each filter in order. If any filter returns true, the feature
-     *     is considered enabled (short-circuit evaluation).</li>
+     *     <li>Otherwise, applies the feature's configured filters, cheapest and
+     *     most likely to match first (see {@link BoundFilter#getCost()}). If any
+     *     filter returns true, the feature is considered enabled (short-circuit
+     *     evaluation).</li>
      * </ul>
      *
      * @param featureName the name of the feature to check
@@ -93,36 +171,314 @@ public class FeatureManager {
      * @return true if the feature is enabled for the context; false otherwise
      */
     public boolean isEnabled(String featureName, FeatureContext ctx) {
-        FeatureDefinition def = repository.getFeature(featureName);
+        CompiledSnapshot current = compiled();
+        FeatureEvaluationPlan plan = current.getPlan(featureName);
 
-        if (def == null || !def.getEnabled()) { return false; }
+        if (plan == null) { return false; }
 
-        for (FilterConfig filterConfig : def.getFilters()) {
-            FeatureFilter filter = filters.getOrDefault(filterConfig.getName(), defaultFilter);
-            if (filter.evaluate(ctx, filterConfig.getParameters())) {
-                return true; // short-circuit success
+        boolean enabled = evaluate(current, plan, featureName, ctx);
+        ExposureLogger exposures = exposureLogger;
+        if (exposures != null) {
+            exposures.log(featureName, ctx, enabled, current.version());
+        }
+        return enabled;
+    }
+
+    private boolean evaluate(CompiledSnapshot current, FeatureEvaluationPlan plan, String featureName, FeatureContext ctx) {
+        FeatureResultCache cache = resultCache;
+        if (cache == null) {
+            return plan.evaluate(ctx);
+        }
+
+        long now = System.currentTimeMillis();
+        Object cached = cache.get(current.version(), featureName, ctx, now);
+        if (cached != null) {
+            return (Boolean) cached;
+        }
+        boolean enabled = plan.evaluate(ctx);
+        cache.put(current.version(), featureName, ctx, enabled, now, plan.cacheableUntil(now));
+        return enabled;
+    }
+
+    /**
+     * Returns the plans for the repository's current snapshot, compiling
+     * them if the repository has published a new snapshot since the last call.
+     */
+    private CompiledSnapshot compiled() {
+        FeatureSnapshot snapshot = legacySnapshots != null ? legacySnapshots.get() : repository.getSnapshot();
+        CompiledSnapshot current = compiled;
+        if (current.getSnapshot() == snapshot) {
+            return current;
+        }
+        synchronized (this) {
+            current = compiled;
+            if (current.getSnapshot() != snapshot) {
+                FeatureSnapshot previous = current.getSnapshot();
+                current = CompiledSnapshot.compile(snapshot, current, filters, defaultFilter, metrics);
+                compiled = current;
+                metrics.retainFlags(snapshot.getFeatures().keySet());
+                notifyChange(previous, current);
             }
+            return current;
         }
-        return false;
     }
 
     /**
      * Returns a map of all feature names to their enabled/disabled status
      * for the given {@link FeatureContext}.
      *
-     * <p>This method evaluates each feature individually using {@link #isEnabled(String, FeatureContext)}.
+     * <p>Equivalent to {@link #evaluateAll(FeatureContext)}.
      *
      * @param ctx the context containing user, roles, and permissions
      * @return a map where keys are feature names and values are booleans indicating
      *         whether the feature is enabled
      */
     public Map<String, Boolean> getAllFeatures(FeatureContext ctx) {
-        return repository.getAllFeatures().keySet().stream()
-                .collect(Collectors.toMap(
-                        featureName -> featureName,
-                        featureName -> isEnabled(featureName, ctx)
-                ));
-    }    
+        return evaluateAll(ctx);
+    }
+
+    /**
+     * Evaluates every feature for the given {@link FeatureContext} in a single
+     * pass over the current repository snapshot.
+     *
+     * <p>Each feature is evaluated exactly once, without per-feature repository
+     * lookups, into an array-backed result sized for the snapshot. Data derived
+     * from the context (such as its role set) is computed once and shared by
+     * all filters.
+     *
+     * @param ctx the context containing user, roles, and permissions
+     * @return the enabled state of every feature, tagged with the snapshot version
+     */
+    public FeatureEvaluationResult evaluateAll(FeatureContext ctx) {
+        CompiledSnapshot current = compiled();
+        FeatureResultCache cache = resultCache;
+        if (cache == null) {
+            return current.evaluateAll(ctx);
+        }
+
+        long now = System.currentTimeMillis();
+        Object cached = cache.get(current.version(), null, ctx, now);
+        if (cached != null) {
+            return (FeatureEvaluationResult) cached;
+        }
+        FeatureEvaluationResult result = current.evaluateAll(ctx);
+        cache.put(current.version(), null, ctx, result, now, current.cacheableUntil(now));
+        return result;
+    }
+
+    /**
+     * Resolves a list of features against the current snapshot for
+     * evaluating them for many contexts.
+     *
+     * <p>Feature names are resolved once, and all contexts evaluated through
+     * the batch see the same snapshot. The result cache is not used.
+     *
+     * @param featureNames the features to evaluate, or {@code null} for all features
+     * @return a batch evaluating the given features
+     */
+    public FeatureBatch batch(List<String> featureNames) {
+        return compiled().batch(featureNames, true);
+    }
+
+    /**
+     * Returns the features of the current snapshot whose filter parameters
+     * failed validation against the filters' {@link FilterSchema schemas}.
+     *
+     * <p>A quarantined feature evaluates to false, unless it replaced a valid
+     * definition, in which case the previous definition keeps being served.
+     *
+     * @return an unmodifiable map of feature key to problem descriptions
+     */
+    public Map<String, List<String>> getQuarantinedFeatures() {
+        return Collections.unmodifiableMap(compiled().quarantined());
+    }
+
+    /**
+     * Returns a tag identifying the results of {@link #evaluateAll} for the
+     * given context, without evaluating any feature.
+     *
+     * <p>The tag combines a random identifier of this manager instance, the
+     * snapshot version, the context's
+     * {@link FeatureContext#getFingerprint() fingerprint} and, if a filter's
+     * result depends on time, the next time at which a result may change. It
+     * therefore changes whenever the evaluated values may have changed, and
+     * is suitable as an HTTP entity tag.
+     *
+     * <p>If a filter is not cacheable at all (see
+     * {@link FeatureFilter#isCacheable()}), the results may change on every
+     * evaluation and there is no tag.
+     *
+     * @param ctx the context containing user, roles, and permissions
+     * @return an opaque tag for the current results of {@code ctx}, or
+     *         {@code null} if the results cannot be tagged
+     */
+    public String getEvaluationTag(FeatureContext ctx) {
+        CompiledSnapshot current = compiled();
+        long now = System.currentTimeMillis();
+        long until = current.cacheableUntil(now);
+        if (until <= now) {
+            return null;
+        }
+        String tag = tagEpoch + "-" + Long.toHexString(current.version())
+                + "-" + Long.toHexString(ctx.getFingerprint());
+        return until == Long.MAX_VALUE ? tag : tag + "-" + Long.toHexString(until);
+    }
+
+    /**
+     * Enables logging of exposures: every {@link #isEnabled} result, including
+     * results served from the result cache, is passed to the logger.
+     * {@link #evaluateAll} and batches are bulk evaluations and are not logged
+     * by themselves; code that returns their values to a client logs them
+     * with {@link #logExposures}, as {@code GET /features},
+     * {@code POST /features/evaluate} and the feature stream do.
+     *
+     * @param exposureLogger the logger to use, or {@code null} to disable exposure logging
+     */
+    public void setExposureLogger(ExposureLogger exposureLogger) {
+        this.exposureLogger = exposureLogger;
+    }
+
+    /**
+     * Logs values that are returned to a client, if exposure logging is enabled.
+     *
+     * @param ctx the context the values were evaluated for
+     * @param values feature values by name
+     * @param version the version of the snapshot the values were evaluated against
+     * @param source where the values are returned
+     */
+    public void logExposures(FeatureContext ctx, Map<String, Boolean> values, long version, ExposureEvent.Source source) {
+        ExposureLogger exposures = exposureLogger;
+        if (exposures == null) {
+            return;
+        }
+        for (Map.Entry<String, Boolean> entry : values.entrySet()) {
+            exposures.log(entry.getKey(), ctx, entry.getValue(), version, source);
+        }
+    }
+
+    /**
+     * Logs the values of a batch that are returned to a client, if exposure
+     * logging is enabled and the batch is recorded.
+     *
+     * @param ctx the context the values were evaluated for
+     * @param batch the batch the values were evaluated with
+     * @param values the value of batch feature {@code i} at index {@code i}
+     * @param source where the values are returned
+     */
+    public void logExposures(FeatureContext ctx, FeatureBatch batch, boolean[] values, ExposureEvent.Source source) {
+        ExposureLogger exposures = exposureLogger;
+        if (exposures == null || !batch.isRecorded()) {
+            return;
+        }
+        List<String> names = batch.getNames();
+        for (int i = 0; i < names.size(); i++) {
+            exposures.log(names.get(i), ctx, values[i], batch.getVersion(), source);
+        }
+    }
+
+    /**
+     * @return the exposure logger, or {@code null} if exposure logging is disabled
+     */
+    public ExposureLogger getExposureLogger() {
+        return exposureLogger;
+    }
+
+    /**
+     * Returns the evaluation and refresh metrics of this manager.
+     *
+     * <p>Every evaluation that is not answered from the result cache is
+     * counted per feature; filter latencies are sampled. Refreshes through
+     * {@link #refreshFeatures()}, and reloads the repository reports on its
+     * own, are timed.
+     *
+     * @return the metrics, never {@code null}
+     */
+    public FeatureMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Enables caching of evaluation results for {@link #isEnabled} and
+     * {@link #evaluateAll}. Cached results are invalidated automatically when
+     * the repository publishes a new snapshot.
+     *
+     * @param resultCache the cache to use, or {@code null} to disable caching
+     */
+    public void setResultCache(FeatureResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * @return the result cache, or {@code null} if caching is disabled
+     */
+    public FeatureResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Registers a listener for snapshot changes.
+     *
+     * <p>Listeners are called on the listener executor (see
+     * {@link #setListenerExecutor}), never on the thread that refreshed the
+     * repository. Changes that add, remove and modify nothing are not reported.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(FeatureChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+    public void removeChangeListener(FeatureChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Sets the executor used to deliver change notifications. By default a
+     * single daemon thread is used, which delivers diffs in snapshot order.
+     *
+     * @param executor the executor to use
+     */
+    public synchronized void setListenerExecutor(Executor executor) {
+        this.listenerExecutor = executor;
+    }
+
+    /**
+     * Computes the diff between two snapshots and dispatches it to the
+     * listeners. Called while holding the lock that orders snapshot switches.
+     */
+    private void notifyChange(FeatureSnapshot previous, CompiledSnapshot current) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        FeatureSnapshotDiff diff = FeatureSnapshotDiff.between(
+                previous != null ? previous : FeatureSnapshot.EMPTY, current.getSnapshot(), current);
+        if (diff.isEmpty()) {
+            return;
+        }
+        if (listenerExecutor == null) {
+            listenerExecutor = newListenerExecutor();
+        }
+        listenerExecutor.execute(() -> {
+            for (FeatureChangeListener listener : changeListeners) {
+                try {
+                    listener.onChange(diff);
+                } catch (RuntimeException e) {
+                    System.err.println("Feature change listener failed: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static ExecutorService newListenerExecutor() {
+        return Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "feature-change-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     /**
      * Returns the default set of filters used when none are provided externally.
@@ -130,7 +486,7 @@ public class FeatureManager {
      * <p>Default filters:
      * <ul>
      *     <li>AlwaysOn - always enabled</li>
-     *     <li>Percentage - enabled for a random percentage of users</li>
+     *     <li>Percentage - enabled for a stable, hash-bucketed percentage of users</li>
      *     <li>RoleBased - enabled for users with specified roles</li>
      *     <li>TimeBased - enabled between a start and end time</li>
      *     <li>Targeting - enabled for specific users or groups</li>
@@ -140,21 +496,11 @@ public class FeatureManager {
      */
     private Map<String, FeatureFilter> getDefaultFilters() {
         Map<String, FeatureFilter> filters = new HashMap<>();
-        filters.put("AlwaysOn", (ctx, params) -> true);
-        filters.put("Percentage", (ctx, params) ->
-            Math.random() < (double) params.getOrDefault("percentage", 0.0));
-        filters.put("RoleBased", (ctx, params) -> ctx.getRoles().contains(params.get("role")));
-        filters.put("TimeBased", (ctx, params) -> {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime start = params.get("start") != null ? LocalDateTime.parse((String) params.get("start")) : LocalDateTime.MIN;
-            LocalDateTime end = params.get("end") != null ? LocalDateTime.parse((String) params.get("end")) : LocalDateTime.MAX;
-            return !now.isBefore(start) && !now.isAfter(end);
-        });
-        filters.put("Targeting", (ctx, params) -> {
-            List<String> users = (List<String>) params.getOrDefault("users", List.of());
-            List<String> groups = (List<String>) params.getOrDefault("groups", List.of());
-            return users.contains(ctx.getUserId()) || ctx.getRoles().stream().anyMatch(groups::contains);
-        });
+        filters.put("AlwaysOn", new AlwaysOnFilter());
+        filters.put("Percentage", new PercentageFilter());
+        filters.put("RoleBased", new RoleBasedFilter());
+        filters.put("TimeBased", new TimeBasedFilter());
+        filters.put("Targeting", new TargetingFilter());
 
         return filters;
     }
@@ -164,8 +510,35 @@ public class FeatureManager {
      *
      * <p>This method can be called to ensure that the latest configuration
      * is applied, for example after an external update to feature flags.
+     * Evaluation plans are recompiled for definitions that changed and
+     * dropped for definitions that were removed, and change listeners are
+     * notified of the difference. Changes to a repository that does not
+     * publish snapshots (see {@link FeatureRepository#getSnapshot()}) are
+     * only picked up here.
+     *
+     * <p>The refresh duration, whether it failed, and the resulting number of
+     * features are recorded in {@link #getMetrics()}. Repositories that
+     * report their reloads (see {@link FeatureRepository#addRefreshListener})
+     * record them themselves, so failures they handle without throwing and
+     * reloads they start on their own are counted too; for other
+     * repositories this method times {@link FeatureRepository#refresh()} and
+     * counts it as failed if it throws.
      */
     public void refreshFeatures() {
-        repository.refresh();
+        long start = System.nanoTime();
+        long reported = metrics.getRefreshCount();
+        boolean failed = true;
+        try {
+            repository.refresh();
+            failed = false;
+        } finally {
+            if (legacySnapshots != null) {
+                legacySnapshots.update();
+            }
+            CompiledSnapshot current = compiled();
+            if (!reportsRefreshes || (failed && metrics.getRefreshCount() == reported)) {
+                metrics.recordRefresh(System.nanoTime() - start, failed, current.size());
+            }
+        }
     }
 }
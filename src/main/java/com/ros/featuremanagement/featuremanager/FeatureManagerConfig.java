@@ -15,6 +15,7 @@ import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
  *     <li>{@link FeatureRepository} — by default, an {@link InMemoryFeatureRepository} is used.</li>
  *     <li>{@link FeatureManager} — configured with the default repository and default filters.</li>
  *     <li>{@link TaskScheduler} — periodically refreshes feature definitions from the repository.</li>
+ *     <li>{@link FeatureStreamRegistry} — pushes feature changes to streaming clients.</li>
  * </ul>
  *
  * <p>The default in-memory repository is suitable for testing or lightweight
@@ -58,6 +59,19 @@ public class FeatureManagerConfig {
         return fm;
     }
 
+    /**
+     * Provides the {@link FeatureStreamRegistry} backing {@code GET /features/stream}.
+     *
+     * <p>Open streams receive a heartbeat comment every 15 seconds.
+     *
+     * @param featureManager the FeatureManager whose changes are streamed
+     * @return the stream registry
+     */
+    @Bean(initMethod = "start")
+    public FeatureStreamRegistry featureStreamRegistry(FeatureManager featureManager) {
+        return new FeatureStreamRegistry(featureManager, java.time.Duration.ofSeconds(15));
+    }
+
     /**
      * Configures a {@link TaskScheduler} to periodically refresh features.
      *
@@ -0,0 +1,303 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluation and refresh metrics of a {@link FeatureManager}.
+ *
+ * <p>Collected metrics:
+ * <ul>
+ *     <li>per feature: number of evaluations that returned true and false</li>
+ *     <li>per filter (by configured name): a latency histogram of filter
+ *     calls, sampled on one in {@code samplePeriod} evaluations</li>
+ *     <li>per refresh: count, failures (refreshes that threw or kept the
+ *     previous contents), total and last duration, and the size of the
+ *     resulting snapshot</li>
+ * </ul>
+ *
+ * <p>All counters are {@link LongAdder}s, so concurrent evaluations do not
+ * contend on a shared counter. Each compiled plan holds direct references to
+ * its feature's and filters' statistics, so recording needs no lookups.
+ * Evaluations answered from a {@link FeatureResultCache} are not counted
+ * here; see {@link FeatureResultCache#getStats()}.
+ *
+ * <p>Metrics can be read directly or exported through a {@link Listener},
+ * which is how the Micrometer binding ({@code FeatureMetricsBinder})
+ * registers meters for features as they appear.
+ */
+public class FeatureMetrics {
+
+    /** Default sampling period for filter latencies. */
+    public static final int DEFAULT_SAMPLE_PERIOD = 64;
+
+    private final int sampleMask;
+    private final Map<String, FlagStats> flags = new ConcurrentHashMap<>();
+    private final Map<String, FilterStats> filters = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshNanos = new LongAdder();
+    private volatile long lastRefreshNanos;
+    private volatile int snapshotSize;
+
+    public FeatureMetrics() {
+        this(DEFAULT_SAMPLE_PERIOD);
+    }
+
+    /**
+     * @param samplePeriod time filter calls on one in this many evaluations;
+     *        rounded up to a power of two, 0 disables latency sampling
+     */
+    public FeatureMetrics(int samplePeriod) {
+        if (samplePeriod < 0) {
+            throw new IllegalArgumentException("samplePeriod must not be negative");
+        }
+        this.sampleMask = samplePeriod == 0 ? -1 : Integer.highestOneBit(Math.max(1, samplePeriod * 2 - 1)) - 1;
+    }
+
+    /** Receives statistics objects as they are created and removed. */
+    public interface Listener {
+        void flagAdded(String feature, FlagStats stats);
+
+        void flagRemoved(String feature, FlagStats stats);
+
+        void filterAdded(String filter, FilterStats stats);
+    }
+
+    /**
+     * Registers a listener and replays all existing statistics to it.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        flags.forEach(listener::flagAdded);
+        filters.forEach(listener::filterAdded);
+    }
+
+    /**
+     * @return true if the current evaluation should time its filters
+     */
+    boolean sample() {
+        return sampleMask >= 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+    }
+
+    FlagStats flag(String feature) {
+        FlagStats stats = flags.get(feature);
+        if (stats != null) {
+            return stats;
+        }
+        FlagStats created = new FlagStats();
+        stats = flags.putIfAbsent(feature, created);
+        if (stats != null) {
+            return stats;
+        }
+        for (Listener listener : listeners) {
+            listener.flagAdded(feature, created);
+        }
+        return created;
+    }
+
+    FilterStats filter(String filter) {
+        FilterStats stats = filters.get(filter);
+        if (stats != null) {
+            return stats;
+        }
+        FilterStats created = new FilterStats();
+        stats = filters.putIfAbsent(filter, created);
+        if (stats != null) {
+            return stats;
+        }
+        for (Listener listener : listeners) {
+            listener.filterAdded(filter, created);
+        }
+        return created;
+    }
+
+    /**
+     * Drops the statistics of features that are no longer in the snapshot.
+     */
+    void retainFlags(Set<String> features) {
+        for (Map.Entry<String, FlagStats> entry : flags.entrySet()) {
+            if (!features.contains(entry.getKey()) && flags.remove(entry.getKey(), entry.getValue())) {
+                for (Listener listener : listeners) {
+                    listener.flagRemoved(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    void recordRefresh(long nanos, boolean failed, int size) {
+        refreshes.increment();
+        refreshNanos.add(nanos);
+        if (failed) {
+            refreshFailures.increment();
+        }
+        lastRefreshNanos = nanos;
+        snapshotSize = size;
+    }
+
+    /**
+     * @return the statistics of a feature, or {@code null} if it was never compiled
+     */
+    public FlagStats getFlagStats(String feature) {
+        return flags.get(feature);
+    }
+
+    /**
+     * @return an unmodifiable view of the statistics of every current feature
+     */
+    public Map<String, FlagStats> getFlagStats() {
+        return Collections.unmodifiableMap(flags);
+    }
+
+    /**
+     * @return the latency statistics of a filter, or {@code null} if it is not in use
+     */
+    public FilterStats getFilterStats(String filter) {
+        return filters.get(filter);
+    }
+
+    /**
+     * @return an unmodifiable view of the latency statistics of every filter in use
+     */
+    public Map<String, FilterStats> getFilterStats() {
+        return Collections.unmodifiableMap(filters);
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long getTotalRefreshNanos() {
+        return refreshNanos.sum();
+    }
+
+    public long getLastRefreshNanos() {
+        return lastRefreshNanos;
+    }
+
+    /**
+     * @return the number of features after the last refresh
+     */
+    public int getSnapshotSize() {
+        return snapshotSize;
+    }
+
+    /** Evaluation counts of one feature. */
+    public static final class FlagStats {
+        private final LongAdder trueCount = new LongAdder();
+        private final LongAdder falseCount = new LongAdder();
+
+        void record(boolean result) {
+            (result ? trueCount : falseCount).increment();
+        }
+
+        public long getTrueCount() {
+            return trueCount.sum();
+        }
+
+        public long getFalseCount() {
+            return falseCount.sum();
+        }
+
+        public long getEvaluations() {
+            return getTrueCount() + getFalseCount();
+        }
+
+        /**
+         * @return the fraction of evaluations that returned true, or 0 if there were none
+         */
+        public double getTrueRatio() {
+            long t = getTrueCount();
+            long total = t + getFalseCount();
+            return total == 0 ? 0 : (double) t / total;
+        }
+    }
+
+    /**
+     * Sampled latency histogram of one filter, with power-of-two nanosecond
+     * buckets: bucket {@code i} counts calls that took less than {@code 2^i} ns
+     * (and at least {@code 2^(i-1)} ns).
+     */
+    public static final class FilterStats {
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        FilterStats() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long n = Math.max(0, nanos);
+            buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(n))].increment();
+            count.increment();
+            totalNanos.add(n);
+        }
+
+        public long getSampleCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double getMeanNanos() {
+            long c = getSampleCount();
+            return c == 0 ? 0 : (double) getTotalNanos() / c;
+        }
+
+        /**
+         * @return the sample count of each bucket
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * Returns an upper bound of the given latency percentile, accurate to
+         * a factor of two.
+         *
+         * @param percentile between 0 and 1, e.g. 0.99
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : 1L << i);
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ros.featuremanagement.featuremanager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports {@link FeatureMetrics} to Micrometer.
+ *
+ * <p>Meters:
+ * <ul>
+ *     <li>{@code feature.evaluations} (counter, tags {@code feature}, {@code result})</li>
+ *     <li>{@code feature.filter.latency} (timer of sampled filter calls, tag {@code filter}),
+ *     with {@code feature.filter.latency.p50} and {@code .p99} gauges</li>
+ *     <li>{@code feature.refresh} (timer), {@code feature.refresh.failures} (counter)
+ *     and {@code feature.snapshot.size} (gauge)</li>
+ * </ul>
+ *
+ * <p>Meters read the underlying counters when scraped, so exporting adds no
+ * work to evaluations. Meters of features are registered as features appear
+ * and removed when they are dropped from the snapshot.
+ */
+public class FeatureMetricsBinder implements MeterBinder {
+
+    private final FeatureMetrics metrics;
+
+    public FeatureMetricsBinder(FeatureMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("feature.refresh", metrics,
+                        FeatureMetrics::getRefreshCount, FeatureMetrics::getTotalRefreshNanos, TimeUnit.NANOSECONDS)
+                .description("Feature refreshes")
+                .register(registry);
+        FunctionCounter.builder("feature.refresh.failures", metrics, FeatureMetrics::getRefreshFailures)
+                .description("Feature refreshes that failed")
+                .register(registry);
+        Gauge.builder("feature.snapshot.size", metrics, FeatureMetrics::getSnapshotSize)
+                .description("Number of features after the last refresh")
+                .register(registry);
+
+        metrics.addListener(new Registrations(registry));
+    }
+
+    /** Registers and removes the meters of individual features and filters. */
+    private static final class Registrations implements FeatureMetrics.Listener {
+        private final MeterRegistry registry;
+        private final Map<String, List<Meter>> flagMeters = new ConcurrentHashMap<>();
+
+        Registrations(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void flagAdded(String feature, FeatureMetrics.FlagStats stats) {
+            Meter enabled = FunctionCounter.builder("feature.evaluations", stats, FeatureMetrics.FlagStats::getTrueCount)
+                    .tags("feature", feature, "result", "true")
+                    .description("Feature evaluations")
+                    .register(registry);
+            Meter disabled = FunctionCounter.builder("feature.evaluations", stats, FeatureMetrics.FlagStats::getFalseCount)
+                    .tags("feature", feature, "result", "false")
+                    .description("Feature evaluations")
+                    .register(registry);
+            flagMeters.put(feature, List.of(enabled, disabled));
+        }
+
+        @Override
+        public void flagRemoved(String feature, FeatureMetrics.FlagStats stats) {
+            List<Meter> meters = flagMeters.remove(feature);
+            if (meters != null) {
+                meters.forEach(registry::remove);
+            }
+        }
+
+        @Override
+        public void filterAdded(String filter, FeatureMetrics.FilterStats stats) {
+            FunctionTimer.builder("feature.filter.latency", stats,
+                            FeatureMetrics.FilterStats::getSampleCount, FeatureMetrics.FilterStats::getTotalNanos,
+                            TimeUnit.NANOSECONDS)
+                    .tags("filter", filter)
+                    .description("Sampled filter evaluation latency")
+                    .register(registry);
+            TimeGauge.builder("feature.filter.latency.p50", stats, TimeUnit.NANOSECONDS, s -> s.getPercentileNanos(0.5))
+                    .tags("filter", filter)
+                    .register(registry);
+            TimeGauge.builder("feature.filter.latency.p99", stats, TimeUnit.NANOSECONDS, s -> s.getPercentileNanos(0.99))
+                    .tags("filter", filter)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ros.featuremanagement.featuremanager;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes {@link FeatureManager#getMetrics()} through Micrometer when it is on
+ * the classpath. With Spring Boot Actuator present, the binder is bound to
+ * the application's meter registry automatically.
+ */
+@Configuration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+public class FeatureMetricsConfig {
+
+    @Bean
+    public FeatureMetricsBinder featureMetricsBinder(FeatureManager featureManager) {
+        return new FeatureMetricsBinder(featureManager.getMetrics());
+    }
+}
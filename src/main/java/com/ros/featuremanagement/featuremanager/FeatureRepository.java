@@ -6,6 +6,44 @@ public interface FeatureRepository {
     FeatureDefinition getFeature(String name);
     Map<String, FeatureDefinition> getAllFeatures();
     void refresh();
-    public void addFeature(FeatureDefinition def);    
-}
+    public void addFeature(FeatureDefinition def);
+
+    /**
+     * Returns the current immutable snapshot of all feature definitions.
+     * Successive calls return the same instance until the repository changes.
+     *
+     * <p>The default copies {@link #getAllFeatures()} on every call and is
+     * not versioned, so that repositories written before snapshots existed
+     * keep compiling. {@link FeatureManager} keeps its own snapshots of such
+     * repositories and only picks up their changes in
+     * {@link FeatureManager#refreshFeatures()}. Repositories should override
+     * it, for example by extending
+     * {@link com.ros.featuremanagement.featuremanager.impl.AbstractSnapshotFeatureRepository}.
+     */
+    default FeatureSnapshot getSnapshot() {
+        return FeatureSnapshot.EMPTY.next(getAllFeatures());
+    }
 
+    /**
+     * Registers a listener that is told about every reload attempt, including
+     * ones the repository starts on its own (for example from a file watcher)
+     * and ones that fail without throwing.
+     *
+     * @return false if this repository does not report its reloads, in which
+     *         case callers can only time {@link #refresh()} themselves
+     */
+    default boolean addRefreshListener(RefreshListener listener) {
+        return false;
+    }
+
+    /** Receives the outcome of each reload; see {@link #addRefreshListener}. */
+    @FunctionalInterface
+    interface RefreshListener {
+        /**
+         * @param nanos  how long the reload took
+         * @param failed true if the source could not be read and the previous
+         *               contents were kept
+         */
+        void onRefresh(long nanos, boolean failed);
+    }
+}
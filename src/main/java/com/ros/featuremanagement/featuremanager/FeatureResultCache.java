@@ -0,0 +1,218 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluation results, used by {@link FeatureManager}
+ * when configured via {@link FeatureManager#setResultCache}.
+ *
+ * <p>Entries are keyed by the snapshot version, the feature name (or all
+ * features) and the context's user id, roles and permissions, hashed through
+ * {@link FeatureContext#getFingerprint()}. Contexts that differ only in the
+ * order of roles or permissions share entries.
+ *
+ * <p>Entries expire after the configured TTL, or earlier when a filter reports
+ * that its result may change (see {@link BoundFilter#cacheableUntil}). When a
+ * result is requested for a new snapshot version, all entries for older
+ * versions are dropped. When the cache grows past its maximum size, expired
+ * entries are removed first, then arbitrary entries until it is back under
+ * the limit.
+ */
+public class FeatureResultCache {
+
+    private final int maximumSize;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long version = Long.MIN_VALUE;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of cached results
+     * @param ttl maximum time a result is kept
+     */
+    public FeatureResultCache(int maximumSize, Duration ttl) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Returns a cached result, or {@code null} on a miss.
+     *
+     * @param version the snapshot version being evaluated
+     * @param featureName the feature, or {@code null} for an all-features result
+     */
+    Object get(long version, String featureName, FeatureContext ctx, long nowMillis) {
+        checkVersion(version);
+        Entry entry = entries.get(new Key(version, featureName, ctx));
+        if (entry == null || entry.expiresAt <= nowMillis) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Caches a result until {@code cacheableUntil} or the TTL, whichever is sooner.
+     */
+    void put(long version, String featureName, FeatureContext ctx, Object value, long nowMillis, long cacheableUntil) {
+        long expiresAt = Math.min(cacheableUntil, nowMillis + ttlMillis);
+        if (expiresAt <= nowMillis || version != this.version) {
+            return;
+        }
+        entries.put(new Key(version, featureName, ctx), new Entry(value, expiresAt));
+        if (entries.size() > maximumSize) {
+            evict(nowMillis);
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private void checkVersion(long version) {
+        if (this.version != version) {
+            synchronized (this) {
+                if (this.version != version) {
+                    this.version = version;
+                    entries.clear();
+                }
+            }
+        }
+    }
+
+    private void evict(long nowMillis) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> {
+                if (entry.expiresAt <= nowMillis) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            });
+            Iterator<Key> it = entries.keySet().iterator();
+            while (entries.size() > maximumSize && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Point-in-time cache statistics.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+
+        Stats(long hitCount, long missCount, long evictionCount, long size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount
+                    + ", evictions=" + evictionCount + ", size=" + size + "}";
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+        private final long version;
+        private final String featureName;
+        private final String userId;
+        private final Set<String> roles;
+        private final Set<String> permissions;
+        private final int hash;
+
+        Key(long version, String featureName, FeatureContext ctx) {
+            this.version = version;
+            this.featureName = featureName;
+            this.userId = ctx.getUserId();
+            this.roles = ctx.getRoleSet();
+            this.permissions = ctx.getPermissionSet();
+            long h = ctx.getFingerprint() * 31 + version;
+            h = h * 31 + (featureName != null ? featureName.hashCode() : 0);
+            this.hash = Long.hashCode(h);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash
+                    && version == other.version
+                    && Objects.equals(featureName, other.featureName)
+                    && Objects.equals(userId, other.userId)
+                    && roles.equals(other.roles)
+                    && permissions.equals(other.permissions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A boolean expression over filters, used by a {@link FeatureDefinition}
+ * in place of its list of filters.
+ *
+ * <p>A rule is either a single filter or a combination of rules: all of
+ * them ({@code AND}), any of them ({@code OR}) or the negation of one. For
+ * example, "admins, inside a time window, in a 20% rollout":
+ * <pre>
+ * rule:
+ *   all:
+ *     - name: RoleBased
+ *       parameters: { role: admin }
+ *     - name: TimeBased
+ *       parameters: { start: 2025-09-01T00:00:00, end: 2025-10-01T00:00:00 }
+ *     - name: Percentage
+ *       parameters: { percentage: 0.2 }
+ * </pre>
+ *
+ * <p>An empty {@code all} is true and an empty {@code any} is false.
+ * Rules are compiled when a snapshot is loaded; filters whose result is
+ * already fixed then (such as a time window that has closed) are folded
+ * away, so a rule may skip filters that cannot change its result.
+ */
+public class FeatureRule {
+
+    /** The kind of a rule node. */
+    public enum Operator {
+        /** True if every child rule is true. */
+        ALL,
+        /** True if at least one child rule is true. */
+        ANY,
+        /** True if its single child rule is false. */
+        NOT,
+        /** The result of one filter. */
+        FILTER
+    }
+
+    private final Operator operator;
+    private final List<FeatureRule> rules;
+    private final FilterConfig filter;
+
+    private FeatureRule(Operator operator, List<FeatureRule> rules, FilterConfig filter) {
+        this.operator = operator;
+        this.rules = rules;
+        this.filter = filter;
+    }
+
+    public static FeatureRule all(List<FeatureRule> rules) {
+        return new FeatureRule(Operator.ALL, List.copyOf(rules), null);
+    }
+
+    public static FeatureRule any(List<FeatureRule> rules) {
+        return new FeatureRule(Operator.ANY, List.copyOf(rules), null);
+    }
+
+    public static FeatureRule not(FeatureRule rule) {
+        return new FeatureRule(Operator.NOT, List.of(rule), null);
+    }
+
+    public static FeatureRule filter(FilterConfig filter) {
+        return new FeatureRule(Operator.FILTER, List.of(), Objects.requireNonNull(filter));
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the child rules; one for {@code NOT}, none for {@code FILTER}
+     */
+    public List<FeatureRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the filter of a {@code FILTER} rule, otherwise {@code null}
+     */
+    public FilterConfig getFilter() {
+        return filter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FeatureRule)) return false;
+        FeatureRule other = (FeatureRule) o;
+        return operator == other.operator
+                && Objects.equals(rules, other.rules)
+                && Objects.equals(filter, other.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, rules, filter);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of all feature definitions held by a
+ * {@link FeatureRepository}.
+ *
+ * <p>Repositories publish a new snapshot whenever their contents change
+ * (refresh or {@code addFeature}) and swap it in atomically, so readers
+ * never observe a partially updated set of features. The version increases
+ * by one with every published snapshot of a repository.
+ */
+public final class FeatureSnapshot {
+
+    /** The empty snapshot every repository starts from. */
+    public static final FeatureSnapshot EMPTY = new FeatureSnapshot(0, Map.of());
+
+    private final long version;
+    private final Map<String, FeatureDefinition> features;
+
+    public FeatureSnapshot(long version, Map<String, FeatureDefinition> features) {
+        this.version = version;
+        this.features = Collections.unmodifiableMap(new HashMap<>(features));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public FeatureDefinition getFeature(String name) {
+        return features.get(name);
+    }
+
+    /**
+     * @return an unmodifiable map of feature key to definition
+     */
+    public Map<String, FeatureDefinition> getFeatures() {
+        return features;
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Returns the next version of this snapshot with the given contents.
+     */
+    public FeatureSnapshot next(Map<String, FeatureDefinition> features) {
+        return new FeatureSnapshot(version + 1, features);
+    }
+
+    /**
+     * Returns the next version of this snapshot with one definition added or replaced.
+     */
+    public FeatureSnapshot with(String key, FeatureDefinition def) {
+        Map<String, FeatureDefinition> copy = new HashMap<>(features);
+        copy.put(key, def);
+        return new FeatureSnapshot(version + 1, copy);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The difference between two {@link FeatureSnapshot}s: the feature keys that
+ * were added, removed, or whose definition changed.
+ *
+ * <p>Definitions are compared by reference first and then with
+ * {@link FeatureDefinition#equals}, so a repository that reloads an identical
+ * definition does not report it as modified.
+ */
+public final class FeatureSnapshotDiff {
+
+    private final FeatureSnapshot previous;
+    private final FeatureSnapshot current;
+    private final Set<String> added;
+    private final Set<String> removed;
+    private final Set<String> modified;
+
+    /** Plans compiled from {@link #current}, when the diff comes from a {@link FeatureManager}. */
+    private final CompiledSnapshot compiled;
+
+    private FeatureSnapshotDiff(FeatureSnapshot previous, FeatureSnapshot current, CompiledSnapshot compiled,
+                                Set<String> added, Set<String> removed, Set<String> modified) {
+        this.previous = previous;
+        this.current = current;
+        this.compiled = compiled;
+        this.added = Collections.unmodifiableSet(added);
+        this.removed = Collections.unmodifiableSet(removed);
+        this.modified = Collections.unmodifiableSet(modified);
+    }
+
+    /**
+     * Computes the changes from {@code previous} to {@code current}.
+     */
+    public static FeatureSnapshotDiff between(FeatureSnapshot previous, FeatureSnapshot current) {
+        return between(previous, current, null);
+    }
+
+    static FeatureSnapshotDiff between(FeatureSnapshot previous, FeatureSnapshot current, CompiledSnapshot compiled) {
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        Set<String> modified = new HashSet<>();
+        Map<String, FeatureDefinition> before = previous.getFeatures();
+
+        for (Map.Entry<String, FeatureDefinition> entry : current.getFeatures().entrySet()) {
+            FeatureDefinition old = before.get(entry.getKey());
+            if (old == null) {
+                added.add(entry.getKey());
+            } else if (old != entry.getValue() && !old.equals(entry.getValue())) {
+                modified.add(entry.getKey());
+            }
+        }
+        for (String key : before.keySet()) {
+            if (current.getFeature(key) == null) {
+                removed.add(key);
+            }
+        }
+        return new FeatureSnapshotDiff(previous, current, compiled, added, removed, modified);
+    }
+
+    /**
+     * Resolves features against the plans of the new snapshot, without
+     * recording evaluations in the feature metrics.
+     *
+     * @return the batch, or {@code null} if the diff was not computed by a
+     *         {@link FeatureManager}
+     */
+    FeatureBatch batch(List<String> featureNames) {
+        return compiled != null ? compiled.batch(featureNames, false) : null;
+    }
+
+    public FeatureSnapshot getPreviousSnapshot() {
+        return previous;
+    }
+
+    public FeatureSnapshot getSnapshot() {
+        return current;
+    }
+
+    public long getPreviousVersion() {
+        return previous.getVersion();
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    public Set<String> getAdded() {
+        return added;
+    }
+
+    public Set<String> getRemoved() {
+        return removed;
+    }
+
+    public Set<String> getModified() {
+        return modified;
+    }
+
+    /**
+     * @return every key that was added, removed or modified
+     */
+    public Set<String> getChanged() {
+        Set<String> changed = new HashSet<>(added);
+        changed.addAll(removed);
+        changed.addAll(modified);
+        return changed;
+    }
+
+    /**
+     * @return true if both snapshots hold the same definitions
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureSnapshotDiff{" + getPreviousVersion() + " -> " + getVersion()
+                + ", added=" + added + ", removed=" + removed + ", modified=" + modified + '}';
+    }
+}
@@ -0,0 +1,306 @@
+package com.ros.featuremanagement.featuremanager;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of open Server-Sent Events connections and pushes flag changes
+ * to them (see {@code GET /features/stream} on {@link FeatureController}).
+ *
+ * <p>Each connection remembers its {@link FeatureContext} and the values it
+ * was last sent. When the {@link FeatureManager} reports a
+ * {@link FeatureSnapshotDiff}, only the added and modified features are
+ * re-evaluated against that snapshot, once per distinct context, and a
+ * {@code change} event is sent only if one of their values actually changed
+ * for that context (or a feature was removed). These re-evaluations are not
+ * counted in the {@link FeatureMetrics}; the values sent are logged as
+ * {@link ExposureEvent.Source#STREAM} exposures. Event ids are snapshot versions.
+ *
+ * <p>A new connection first receives a {@code snapshot} event with all
+ * values, unless its {@code Last-Event-ID} already names the current
+ * version, in which case the client is up to date and nothing is resent.
+ *
+ * <p>Connections are asynchronous servlet requests, so idle connections do
+ * not hold a thread. A single scheduler thread queues heartbeat comments for
+ * all connections so that proxies keep them open and dead peers are
+ * detected. They are written by a separate pool, and a connection that is
+ * still busy writing gets no further heartbeats, so one slow client does not
+ * hold up the others.
+ *
+ * <p>Events are queued per connection and written outside the connection's
+ * monitor, in the order they were produced. Call {@link #start()} to begin
+ * listening for changes and sending heartbeats.
+ */
+public class FeatureStreamRegistry implements FeatureChangeListener, AutoCloseable {
+
+    private final FeatureManager featureManager;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats;
+    private final ExecutorService heartbeatDeliveries;
+    private final Duration heartbeatInterval;
+    private boolean started;
+
+    /**
+     * @param featureManager the manager to evaluate features with and listen to
+     * @param heartbeatInterval interval between heartbeat comments
+     */
+    public FeatureStreamRegistry(FeatureManager featureManager, Duration heartbeatInterval) {
+        this.featureManager = featureManager;
+        this.heartbeatInterval = heartbeatInterval;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "feature-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeatDeliveries = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "feature-stream-heartbeat-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts listening for changes of the feature manager and sending
+     * heartbeats. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        long interval = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        featureManager.addChangeListener(this);
+    }
+
+    /**
+     * Opens a stream for the given context.
+     *
+     * @param ctx the context to evaluate features for
+     * @param lastEventId the {@code Last-Event-ID} sent by a reconnecting client, or {@code null}
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(FeatureContext ctx, String lastEventId) {
+        return register(new SseEmitter(0L), ctx, lastEventId);
+    }
+
+    /**
+     * Registers an existing emitter; see {@link #subscribe}.
+     */
+    public SseEmitter register(SseEmitter emitter, FeatureContext ctx, String lastEventId) {
+        Subscription subscription = new Subscription(emitter, ctx);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        synchronized (subscription) {
+            FeatureEvaluationResult result = featureManager.evaluateAll(ctx);
+            subscription.values.putAll(result);
+            subscription.version = result.getVersion();
+            subscriptions.add(subscription);
+
+            if (!String.valueOf(result.getVersion()).equals(lastEventId)) {
+                featureManager.logExposures(ctx, result, result.getVersion(), ExposureEvent.Source.STREAM);
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("version", result.getVersion());
+                data.put("features", new LinkedHashMap<>(subscription.values));
+                subscription.outbox.add(SseEmitter.event()
+                        .id(String.valueOf(result.getVersion()))
+                        .name("snapshot")
+                        .data(data));
+            }
+        }
+        deliver(subscription);
+        return emitter;
+    }
+
+    /**
+     * @return the number of open connections
+     */
+    public int getConnectionCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onChange(FeatureSnapshotDiff diff) {
+        List<String> evaluate = new ArrayList<>(diff.getAdded());
+        evaluate.addAll(diff.getModified());
+        FeatureBatch batch = diff.batch(evaluate);
+        if (batch == null) {
+            return; // not a change of our feature manager
+        }
+        long version = batch.getVersion();
+        List<String> names = batch.getNames();
+
+        // subscriptions with equivalent contexts share one evaluation
+        Map<ContextKey, boolean[]> evaluated = new HashMap<>();
+        for (Subscription subscription : subscriptions) {
+            boolean[] values = evaluated.computeIfAbsent(subscription.key, key -> batch.evaluate(subscription.ctx));
+            synchronized (subscription) {
+                if (subscription.version >= version) {
+                    continue; // subscribed after this change
+                }
+                subscription.version = version;
+
+                Map<String, Boolean> changed = new LinkedHashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    Boolean previous = subscription.values.put(names.get(i), values[i]);
+                    if (previous == null || previous != values[i]) {
+                        changed.put(names.get(i), values[i]);
+                    }
+                }
+                List<String> removed = new ArrayList<>();
+                for (String name : diff.getRemoved()) {
+                    if (subscription.values.remove(name) != null) {
+                        removed.add(name);
+                    }
+                }
+                if (changed.isEmpty() && removed.isEmpty()) {
+                    continue;
+                }
+                featureManager.logExposures(subscription.ctx, changed, version, ExposureEvent.Source.STREAM);
+
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("version", version);
+                data.put("features", changed);
+                data.put("removed", removed);
+                subscription.outbox.add(SseEmitter.event()
+                        .id(String.valueOf(version))
+                        .name("change")
+                        .data(data));
+            }
+            deliver(subscription);
+        }
+    }
+
+    /**
+     * Sends the queued events of a subscription in order, without holding
+     * its monitor while writing. Only one thread drains a subscription at a
+     * time; a caller that finds it already being drained returns at once.
+     */
+    private void deliver(Subscription subscription) {
+        synchronized (subscription) {
+            if (subscription.sending) {
+                return;
+            }
+            subscription.sending = true;
+        }
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (subscription) {
+                event = subscription.outbox.poll();
+                if (event == null) {
+                    subscription.sending = false;
+                    return;
+                }
+            }
+            send(subscription, event);
+        }
+    }
+
+    /**
+     * Queues a heartbeat for every connection that is not busy, and delivers
+     * them on {@link #heartbeatDeliveries}. A connection with queued or
+     * in-flight events is skipped: those events keep it alive, and a blocked
+     * write gets no more heartbeats piled up behind it.
+     */
+    private void sendHeartbeats() {
+        for (Subscription subscription : subscriptions) {
+            synchronized (subscription) {
+                if (subscription.sending || !subscription.outbox.isEmpty()) {
+                    continue;
+                }
+                subscription.outbox.add(SseEmitter.event().comment("heartbeat"));
+            }
+            heartbeatDeliveries.execute(() -> deliver(subscription));
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // peer went away or the emitter is already complete
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Stops heartbeats, stops listening for changes and completes all open streams.
+     */
+    @Override
+    public void close() {
+        featureManager.removeChangeListener(this);
+        heartbeats.shutdownNow();
+        heartbeatDeliveries.shutdownNow();
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        subscriptions.clear();
+    }
+
+    /** One open connection; guarded by its own monitor. */
+    private static final class Subscription {
+        final SseEmitter emitter;
+        final FeatureContext ctx;
+        final ContextKey key;
+        final Map<String, Boolean> values = new HashMap<>();
+        final Queue<SseEmitter.SseEventBuilder> outbox = new ArrayDeque<>();
+        long version;
+        boolean sending;
+
+        Subscription(SseEmitter emitter, FeatureContext ctx) {
+            this.emitter = emitter;
+            this.ctx = ctx;
+            this.key = new ContextKey(ctx);
+        }
+    }
+
+    /** Identifies equivalent contexts, which evaluate every feature alike. */
+    private static final class ContextKey {
+        private final String userId;
+        private final Set<String> roles;
+        private final Set<String> permissions;
+        private final long fingerprint;
+
+        ContextKey(FeatureContext ctx) {
+            this.userId = ctx.getUserId();
+            this.roles = ctx.getRoleSet();
+            this.permissions = ctx.getPermissionSet();
+            this.fingerprint = ctx.getFingerprint();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ContextKey)) return false;
+            ContextKey other = (ContextKey) o;
+            return fingerprint == other.fingerprint
+                    && Objects.equals(userId, other.userId)
+                    && roles.equals(other.roles)
+                    && permissions.equals(other.permissions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint);
+        }
+    }
+}
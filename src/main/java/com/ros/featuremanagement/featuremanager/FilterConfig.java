@@ -1,6 +1,7 @@
 package com.ros.featuremanagement.featuremanager;
 
 import java.util.Map;
+import java.util.Objects;
 
 public class FilterConfig {
     private final String name;
@@ -18,4 +19,18 @@ public class FilterConfig {
     public Map<String, Object> getParameters() {
         return parameters;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FilterConfig)) return false;
+        FilterConfig other = (FilterConfig) o;
+        return Objects.equals(name, other.name)
+                && Objects.equals(parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, parameters);
+    }
 }
@@ -0,0 +1,31 @@
+package com.ros.featuremanagement.featuremanager;
+
+/**
+ * Relative cost of evaluating a {@link BoundFilter}, reported through
+ * {@link BoundFilter#getCost()}.
+ *
+ * <p>Within a feature, filters are evaluated in order of increasing expected
+ * cost: cheap filters that are likely to match run first. The weights are
+ * relative, not measured times.
+ */
+public enum FilterCost {
+    /** Inspects only the context and pre-bound parameters, e.g. a set lookup or hash. */
+    CHEAP(1),
+    /** Does noticeably more work per call, e.g. parsing or scanning a collection. */
+    MODERATE(10),
+    /** Blocks or leaves the process, e.g. a remote call or file access. */
+    EXPENSIVE(1000);
+
+    private final int weight;
+
+    FilterCost(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @return the relative cost of one evaluation
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
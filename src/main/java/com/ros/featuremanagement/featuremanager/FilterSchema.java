@@ -0,0 +1,188 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parameters a {@link FeatureFilter} accepts, declared through
+ * {@link FeatureFilter#getSchema()}.
+ *
+ * <p>Parameters of every filter configuration are validated against the
+ * schema when a snapshot is compiled, before the filter is bound. A feature
+ * with invalid parameters is quarantined rather than evaluated (see
+ * {@link FeatureManager#getQuarantinedFeatures()}), so malformed
+ * configuration surfaces when it is loaded, not as an exception at request
+ * time.
+ *
+ * <p>Unknown parameter names are rejected, which catches misspelled keys.
+ */
+public final class FilterSchema {
+
+    /** Parameter types, with the raw values each accepts. */
+    public enum Type {
+        /** Any scalar value; non-strings are converted with {@code toString()}. */
+        STRING,
+        /** A number, or a string holding a number. */
+        NUMBER,
+        /** A boolean, or the string {@code true} or {@code false}. */
+        BOOLEAN,
+        /** A list of scalars, or a single scalar. */
+        STRING_LIST,
+        /** An ISO-8601 local date-time string, e.g. {@code 2025-09-03T09:00:00}. */
+        DATE_TIME
+    }
+
+    /** One declared parameter. */
+    public static final class Parameter {
+        private final String name;
+        private final Type type;
+        private final boolean required;
+        private final double min;
+        private final double max;
+
+        private Parameter(String name, Type type, boolean required, double min, double max) {
+            this.name = name;
+            this.type = type;
+            this.required = required;
+            this.min = min;
+            this.max = max;
+        }
+
+        public static Parameter required(String name, Type type) {
+            return new Parameter(name, type, true, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        public static Parameter optional(String name, Type type) {
+            return new Parameter(name, type, false, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * @return this parameter restricted to {@code [min, max]}; for {@link Type#NUMBER} only
+         */
+        public Parameter range(double min, double max) {
+            if (type != Type.NUMBER) {
+                throw new IllegalStateException("Only NUMBER parameters have a range: " + name);
+            }
+            return new Parameter(name, type, required, min, max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        /**
+         * @return a description of what is wrong with {@code value}, or {@code null} if it is valid
+         */
+        String check(Object value) {
+            switch (type) {
+                case STRING:
+                    return value instanceof Map || value instanceof List ? "must be a single value" : null;
+                case NUMBER: {
+                    double d;
+                    if (value instanceof Number) {
+                        d = ((Number) value).doubleValue();
+                    } else {
+                        try {
+                            d = Double.parseDouble(value.toString().trim());
+                        } catch (NumberFormatException e) {
+                            return "is not a number: " + value;
+                        }
+                    }
+                    if (Double.isNaN(d) || d < min || d > max) {
+                        return "must be between " + min + " and " + max + ": " + value;
+                    }
+                    return null;
+                }
+                case BOOLEAN:
+                    return value instanceof Boolean
+                            || "true".equalsIgnoreCase(value.toString())
+                            || "false".equalsIgnoreCase(value.toString()) ? null : "is not a boolean: " + value;
+                case STRING_LIST:
+                    if (value instanceof Map) {
+                        return "must be a list";
+                    }
+                    if (value instanceof List) {
+                        for (Object item : (List<?>) value) {
+                            if (item instanceof Map || item instanceof List) {
+                                return "must be a list of values";
+                            }
+                        }
+                    }
+                    return null;
+                case DATE_TIME:
+                    try {
+                        LocalDateTime.parse(value.toString());
+                        return null;
+                    } catch (DateTimeParseException e) {
+                        return "is not a date-time (yyyy-MM-ddTHH:mm:ss): " + value;
+                    }
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Map<String, Parameter> parameters;
+
+    private FilterSchema(Map<String, Parameter> parameters) {
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    public static FilterSchema of(Parameter... parameters) {
+        Map<String, Parameter> byName = new LinkedHashMap<>();
+        for (Parameter parameter : parameters) {
+            byName.put(parameter.getName(), parameter);
+        }
+        return new FilterSchema(byName);
+    }
+
+    /**
+     * @return the declared parameters by name, in declaration order
+     */
+    public Map<String, Parameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Checks raw parameters against the schema.
+     *
+     * @param values the configured parameters; {@code null} is treated as empty
+     * @return one message per problem; empty if the parameters are valid
+     */
+    public List<String> validate(Map<String, Object> values) {
+        Map<String, Object> params = values != null ? values : Map.of();
+        List<String> errors = new ArrayList<>();
+        for (String name : params.keySet()) {
+            if (!parameters.containsKey(name)) {
+                errors.add("unknown parameter '" + name + "'");
+            }
+        }
+        for (Parameter parameter : parameters.values()) {
+            Object value = params.get(parameter.getName());
+            if (value == null) {
+                if (parameter.isRequired()) {
+                    errors.add("missing required parameter '" + parameter.getName() + "'");
+                }
+                continue;
+            }
+            String problem = parameter.check(value);
+            if (problem != null) {
+                errors.add("parameter '" + parameter.getName() + "' " + problem);
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ros.featuremanagement.featuremanager;
+
+import java.util.Map;
+
+/**
+ * Snapshots of a repository that does not publish its own (see
+ * {@link FeatureRepository#getSnapshot()}), kept by the {@link FeatureManager}
+ * reading it.
+ *
+ * <p>Evaluations only read the last snapshot. The repository's definitions
+ * are compared with it, and its next version published, only when
+ * {@link #update()} is called on refresh.
+ */
+final class LegacySnapshots {
+
+    private final FeatureRepository repository;
+
+    private volatile FeatureSnapshot current;
+
+    LegacySnapshots(FeatureRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return snapshots for {@code repository}, or {@code null} if it
+     *         overrides {@link FeatureRepository#getSnapshot()}
+     */
+    static LegacySnapshots forRepository(FeatureRepository repository) {
+        try {
+            boolean inherited = repository.getClass().getMethod("getSnapshot").isDefault();
+            return inherited ? new LegacySnapshots(repository) : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the last snapshot, taking the first one if there is none yet
+     */
+    FeatureSnapshot get() {
+        FeatureSnapshot snapshot = current;
+        return snapshot != null ? snapshot : update();
+    }
+
+    /**
+     * Publishes the next snapshot if the repository's definitions changed.
+     *
+     * @return the current snapshot
+     */
+    synchronized FeatureSnapshot update() {
+        Map<String, FeatureDefinition> features = repository.getAllFeatures();
+        FeatureSnapshot last = current;
+        if (last == null) {
+            last = FeatureSnapshot.EMPTY.next(features);
+        } else if (!last.getFeatures().equals(features)) {
+            last = last.next(features);
+        }
+        current = last;
+        return last;
+    }
+}
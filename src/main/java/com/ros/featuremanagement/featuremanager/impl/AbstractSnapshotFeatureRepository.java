@@ -0,0 +1,80 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureRepository;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base class for repositories that publish their contents as an immutable
+ * {@link FeatureSnapshot} through an atomic reference.
+ *
+ * <p>Reads are wait-free and see a consistent set of features. Writers build
+ * a new snapshot and swap it in; concurrent {@link #addFeature} calls retry
+ * rather than lose updates.
+ *
+ * <p>Subclasses that reload from a source call {@link #reportRefresh} after
+ * every attempt, so that listeners see reloads however they were triggered.
+ */
+public abstract class AbstractSnapshotFeatureRepository implements FeatureRepository {
+
+    private final AtomicReference<FeatureSnapshot> snapshot = new AtomicReference<>(FeatureSnapshot.EMPTY);
+    private final List<RefreshListener> refreshListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public FeatureSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public FeatureDefinition getFeature(String name) {
+        return snapshot.get().getFeature(name);
+    }
+
+    @Override
+    public Map<String, FeatureDefinition> getAllFeatures() {
+        return snapshot.get().getFeatures();
+    }
+
+    @Override
+    public void addFeature(FeatureDefinition def) {
+        snapshot.updateAndGet(current -> current.with(def.getName(), def));
+    }
+
+    /**
+     * Replaces the repository contents with a new snapshot.
+     *
+     * @param features the complete set of features to publish
+     * @return the published snapshot
+     */
+    protected FeatureSnapshot publish(Map<String, FeatureDefinition> features) {
+        return snapshot.updateAndGet(current -> current.next(features));
+    }
+
+    @Override
+    public boolean addRefreshListener(RefreshListener listener) {
+        refreshListeners.add(listener);
+        return true;
+    }
+
+    /**
+     * Tells the registered listeners about a reload attempt.
+     *
+     * @param nanos  how long the reload took
+     * @param failed true if the previous contents were kept because the
+     *               source could not be read
+     */
+    protected void reportRefresh(long nanos, boolean failed) {
+        for (RefreshListener listener : refreshListeners) {
+            try {
+                listener.onRefresh(nanos, failed);
+            } catch (RuntimeException e) {
+                System.err.println("Refresh listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
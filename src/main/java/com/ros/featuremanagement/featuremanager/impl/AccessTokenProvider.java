@@ -0,0 +1,103 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches an {@link AccessToken} from a {@link TokenCredential} and shares it
+ * between concurrent requests.
+ *
+ * <p>A cached token is returned until it is within {@code expirySkew} of
+ * expiring; after that callers wait for a new one. Once a token enters the
+ * {@code refreshBefore} window, the first caller starts a background refresh
+ * and keeps using the current token. At most one token request is in flight
+ * at a time. Requests run on Reactor's bounded elastic scheduler, so a
+ * credential that blocks (such as {@code DefaultAzureCredential} calling a
+ * CLI or the instance metadata endpoint) never holds up the caller that
+ * started a background refresh.
+ *
+ * <p>The credential is pluggable so tests can supply a local fake instead of
+ * {@code DefaultAzureCredential}.
+ */
+public class AccessTokenProvider {
+
+    public static final String APP_CONFIG_SCOPE = "https://azconfig.io/.default";
+
+    private final TokenCredential credential;
+    private final TokenRequestContext request;
+    private final Duration refreshBefore;
+    private final Duration expirySkew;
+
+    private volatile AccessToken token;
+    private final AtomicReference<CompletableFuture<AccessToken>> inFlight = new AtomicReference<>();
+
+    public AccessTokenProvider(TokenCredential credential) {
+        this(credential, APP_CONFIG_SCOPE, Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    public AccessTokenProvider(TokenCredential credential, String scope, Duration refreshBefore, Duration expirySkew) {
+        this.credential = credential;
+        this.request = new TokenRequestContext().addScopes(scope);
+        this.refreshBefore = refreshBefore;
+        this.expirySkew = expirySkew;
+    }
+
+    /**
+     * @return the value for an {@code Authorization} header
+     */
+    public String getAuthorizationHeader() {
+        return "Bearer " + getToken().getToken();
+    }
+
+    public AccessToken getToken() {
+        AccessToken current = token;
+        OffsetDateTime now = OffsetDateTime.now();
+
+        if (current == null || !now.isBefore(current.getExpiresAt().minus(expirySkew))) {
+            return refresh().join();
+        }
+        if (!now.isBefore(current.getExpiresAt().minus(refreshBefore))) {
+            refresh(); // proactive, in the background
+        }
+        return current;
+    }
+
+    /**
+     * Starts a token request unless one is already in flight.
+     */
+    private CompletableFuture<AccessToken> refresh() {
+        CompletableFuture<AccessToken> created = new CompletableFuture<>();
+        CompletableFuture<AccessToken> pending = inFlight.compareAndExchange(null, created);
+        if (pending != null) {
+            return pending;
+        }
+
+        try {
+            credential.getToken(request).subscribeOn(Schedulers.boundedElastic()).toFuture().whenComplete((result, error) -> {
+                if (result != null) {
+                    token = result;
+                }
+                inFlight.compareAndSet(created, null);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else if (result == null) {
+                    created.completeExceptionally(new IllegalStateException("Credential returned no token"));
+                } else {
+                    created.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.compareAndSet(created, null);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+
+import java.util.Map;
+
+/**
+ * "AlwaysOn" filter - always returns true.
+ */
+public class AlwaysOnFilter implements FeatureFilter {
+
+    private static final FilterSchema SCHEMA = FilterSchema.of();
+
+    @Override
+    public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+        return true;
+    }
+
+    @Override
+    public FilterSchema getSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        return BoundFilter.ALWAYS;
+    }
+}
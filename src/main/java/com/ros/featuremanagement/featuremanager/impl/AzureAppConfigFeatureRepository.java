@@ -1,105 +1,455 @@
 package com.ros.featuremanagement.featuremanager.impl;
 
+import com.azure.core.credential.TokenCredential;
 import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.ros.featuremanagement.featuremanager.FeatureDefinition;
-import com.ros.featuremanagement.featuremanager.FeatureRepository;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 
-public class AzureAppConfigFeatureRepository implements FeatureRepository {
-    private Map<String, FeatureDefinition> cache = new HashMap<>();
+/**
+ * Feature repository backed by Azure App Configuration.
+ *
+ * <p>Each key holds one feature definition as YAML. Keys are loaded in one
+ * of two modes:
+ * <ul>
+ *     <li>key filter ({@code feature.appconfig.key-filter}, e.g. {@code Feature:*}):
+ *     all matching keys are listed through the paged {@code /kv} endpoint,
+ *     following {@code @nextLink} continuations. Each page is stream-parsed
+ *     item by item, so thousands of flags load in a handful of requests.</li>
+ *     <li>key list ({@code feature.appconfig.keys}): each key is fetched
+ *     individually, as described below.</li>
+ * </ul>
+ *
+ * <p>In key-list mode a refresh fetches all keys concurrently with {@link HttpClient#sendAsync}, bounded
+ * by {@code max-concurrency} in-flight requests and a per-request timeout,
+ * and publishes a new snapshot only after every fetch has completed. Keys
+ * that fail to load keep their previously loaded definition.
+ *
+ * <p>The ETag of every loaded key is remembered and sent as
+ * {@code If-None-Match} on the next refresh. Keys answered with
+ * {@code 304 Not Modified} reuse their existing {@link FeatureDefinition}
+ * (and therefore their compiled evaluation plan), and a refresh in which
+ * nothing changed does not publish a new snapshot. Keys answered with
+ * {@code 404} are removed. In key-filter mode, items whose ETag is
+ * unchanged reuse their definition without re-parsing the YAML value, and
+ * keys no longer listed are removed.
+ *
+ * <p>Access tokens are obtained through a shared {@link AccessTokenProvider},
+ * so a refresh requests a token at most once rather than once per key.
+ *
+ * <p>When {@code feature.appconfig.cache-file} is set, every published
+ * snapshot is also written atomically to that file (see
+ * {@link FeatureSnapshotFile}), together with the time it was written, the
+ * source it was loaded from and the ETag of every key. At construction the
+ * cache file, if present, is loaded before any remote request is made, so
+ * flags keep their last known values while App Configuration is slow or
+ * unreachable. A cache written for another endpoint, label or key filter is
+ * ignored, and in key-list mode only the configured keys are taken from it.
+ * The first refresh then revalidates the cached keys with conditional
+ * requests.
+ */
+public class AzureAppConfigFeatureRepository extends AbstractSnapshotFeatureRepository {
     private final String endpoint;
     private final String label;
     private final List<String> keys;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final String keyFilter;
+    private final int maxConcurrency;
+    private final Duration requestTimeout;
+    private final Path cacheFile;
+    private final HttpClient httpClient;
+    private final AccessTokenProvider tokenProvider;
+    private final YamlFeatureLoader yamlLoader = new YamlFeatureLoader();
+    private final ObjectMapper jsonMapper = new ObjectMapper();
 
-    @Override
-    public FeatureDefinition getFeature(String name) {
-        return cache.get(name);
-    }
+    /** Metadata key prefix for the ETags stored in the cache file. */
+    private static final String ETAG_PREFIX = "etag:";
 
-    @Override
-    public Map<String, FeatureDefinition> getAllFeatures() {
-        return Collections.unmodifiableMap(cache);
-    }
+    /** Last successfully loaded state of each key, for conditional requests. */
+    private final Map<String, KeyState> states = new ConcurrentHashMap<>();
 
     @Override
     public void refresh() {
-        // TODO: Replace with Azure App Configuration SDK/REST call
-        // Stub example:
-        System.out.println("Refreshing features from Azure App Config...");
-        // cache = loadFromAzure();
-        this.cache = getAllFeatures(this.keys);
+        long start = System.nanoTime();
+        List<String> failed = new ArrayList<>();
+        Map<String, FeatureDefinition> features = keyFilter != null
+                ? listFeatures(keyFilter, failed)
+                : getAllFeatures(this.keys, failed);
+        try {
+            if (features != null && !isUnchanged(features)) {
+                writeCache(publish(features));
+            }
+        } finally {
+            reportRefresh(System.nanoTime() - start, features == null || !failed.isEmpty());
+        }
     }
 
-    public void addFeature(FeatureDefinition def) {
-        cache.put(def.getName(), def);
-    }    
+    /**
+     * @return true if {@code features} holds exactly the current definitions
+     */
+    private boolean isUnchanged(Map<String, FeatureDefinition> features) {
+        Map<String, FeatureDefinition> current = getAllFeatures();
+        if (current.size() != features.size()) {
+            return false;
+        }
+        for (Map.Entry<String, FeatureDefinition> entry : features.entrySet()) {
+            if (current.get(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     public AzureAppConfigFeatureRepository(FeatureAppConfigProperties props) {
+        // Use Azure Managed Identity (DefaultAzureCredential)
+        this(props, new DefaultAzureCredentialBuilder().build());
+    }
+
+    public AzureAppConfigFeatureRepository(FeatureAppConfigProperties props, TokenCredential credential) {
+        this.tokenProvider = new AccessTokenProvider(credential);
         this.endpoint = props.getEndpoint();
         this.label = props.getLabel();
-        this.keys = props.getKeys();
-        System.out.println(">>>>>>>" + props.getKeys());
+        this.keys = props.getKeys() != null ? props.getKeys() : List.of();
+        this.keyFilter = props.getKeyFilter();
+        this.maxConcurrency = props.getMaxConcurrency();
+        this.requestTimeout = props.getRequestTimeout();
+        this.cacheFile = props.getCacheFile() != null ? Path.of(props.getCacheFile()) : null;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        loadCache();
+    }
+
+    /**
+     * Publishes the features stored in the cache file, if there is one, and
+     * remembers their ETags for the first conditional refresh.
+     */
+    private void loadCache() {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return;
+        }
+        try {
+            FeatureSnapshotFile cached = FeatureSnapshotFile.read(cacheFile);
+            Map<String, String> metadata = cached.getMetadata();
+            String mismatch = cacheMismatch(metadata);
+            if (mismatch != null) {
+                System.err.println("Ignoring feature cache " + cacheFile + ": " + mismatch);
+                return;
+            }
+            Map<String, FeatureDefinition> features = new HashMap<>(cached.getSnapshot().getFeatures());
+            if (keyFilter == null) {
+                features.keySet().retainAll(keys);
+            }
+            features.forEach((key, def) ->
+                    states.put(key, new KeyState(metadata.get(ETAG_PREFIX + key), def)));
+            publish(features);
+            System.err.println("Loaded " + features.size() + " features from cache " + cacheFile
+                    + " (source " + metadata.get("source") + ", written " + metadata.get("writtenAt") + ")");
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable feature cache " + cacheFile + ": " + e.getMessage());
+        }
     }
 
-    //@Override
+    /**
+     * @return why the cache was written for a different configuration, or
+     *         {@code null} if it matches this repository
+     */
+    private String cacheMismatch(Map<String, String> metadata) {
+        if (!Objects.equals(endpoint, metadata.get("source"))) {
+            return "written for source " + metadata.get("source") + ", not " + endpoint;
+        }
+        if (!Objects.equals(label, metadata.get("label"))) {
+            return "written for label " + metadata.get("label") + ", not " + label;
+        }
+        if (!Objects.equals(keyFilter, metadata.get("keyFilter"))) {
+            return "written for key filter " + metadata.get("keyFilter") + ", not " + keyFilter;
+        }
+        return null;
+    }
+
+    private void writeCache(FeatureSnapshot snapshot) {
+        if (cacheFile == null) {
+            return;
+        }
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("writtenAt", Instant.now().toString());
+        metadata.put("source", endpoint);
+        if (label != null) {
+            metadata.put("label", label);
+        }
+        if (keyFilter != null) {
+            metadata.put("keyFilter", keyFilter);
+        }
+        snapshot.getFeatures().keySet().forEach(key -> {
+            KeyState state = states.get(key);
+            if (state != null && state.etag != null) {
+                metadata.put(ETAG_PREFIX + key, state.etag);
+            }
+        });
+        try {
+            FeatureSnapshotFile.write(cacheFile, snapshot, metadata);
+        } catch (IOException e) {
+            System.err.println("Failed to write feature cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the given keys concurrently and returns their definitions once
+     * all requests have completed. Keys that could not be fetched are
+     * carried over from the last successful load; unmodified keys keep
+     * their existing definition instance.
+     */
     public Map<String, FeatureDefinition> getAllFeatures(List<String> keys) {
-        Map<String, FeatureDefinition> features = new HashMap<>();
+        return getAllFeatures(keys, new ArrayList<>());
+    }
+
+    /**
+     * As {@link #getAllFeatures(List)}, adding the keys that could not be
+     * fetched to {@code failed}.
+     */
+    private Map<String, FeatureDefinition> getAllFeatures(List<String> keys, List<String> failed) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<String, CompletableFuture<KeyState>> pending = new HashMap<>();
 
         for (String key : keys) {
             try {
-                String url = String.format("%s/kv/%s?label=%s&api-version=1.0", endpoint, key, label);
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            CompletableFuture<KeyState> fetch;
+            try {
+                fetch = fetch(key, states.get(key));
+            } catch (RuntimeException e) {
+                fetch = CompletableFuture.failedFuture(e);
+            }
+            pending.put(key, fetch.whenComplete((state, error) -> permits.release()));
+        }
 
+        Map<String, FeatureDefinition> features = new HashMap<>();
+        for (String key : keys) {
+            CompletableFuture<KeyState> fetch = pending.get(key);
+            KeyState state = null;
+            try {
+                state = fetch != null ? fetch.join() : null;
+            } catch (RuntimeException e) {
+                System.err.println("Failed to fetch " + key + ": " + e.getMessage());
+            }
+            if (state == KeyState.MISSING) {
+                states.remove(key);
+                continue;
+            }
+            if (state == null) {
+                failed.add(key);
+                state = states.get(key); // keep the last good definition
+            }
+            if (state != null) {
+                states.put(key, state);
+                features.put(key, state.definition);
+            }
+        }
+        return features;
+    }
+
+    private CompletableFuture<KeyState> fetch(String key, KeyState previous) {
+        String url = String.format("%s/kv/%s?api-version=1.0", endpoint, encode(key))
+                + (label != null ? "&label=" + encode(label) : "");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Authorization", tokenProvider.getAuthorizationHeader())
+                .header("Content-Type", "application/json");
+        if (previous != null && previous.etag != null) {
+            builder.header("If-None-Match", previous.etag);
+        }
+
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    if (status == 304 && previous != null) {
+                        return previous;
+                    }
+                    if (status == 404) {
+                        return KeyState.MISSING;
+                    }
+                    if (status != 200) {
+                        System.err.println("Failed to fetch " + key + ": " + status);
+                        return null;
+                    }
+                    try {
+                        JsonNode body = jsonMapper.readTree(response.body());
+                        String etag = response.headers().firstValue("ETag")
+                                .orElse(body.hasNonNull("etag") ? "\"" + body.get("etag").asText() + "\"" : null);
+                        return new KeyState(etag, parseDefinition(extractValue(body)));
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Invalid feature definition for " + key, e);
+                    }
+                });
+    }
+
+    /**
+     * Loads every key matching {@code keyFilter} through the paged list
+     * endpoint. Returns {@code null} if any page fails, so that the current
+     * snapshot is kept rather than replaced with a partial one.
+     */
+    public Map<String, FeatureDefinition> listFeatures(String keyFilter) {
+        return listFeatures(keyFilter, new ArrayList<>());
+    }
+
+    /**
+     * As {@link #listFeatures(String)}, adding the keys whose value could not
+     * be parsed to {@code failed}.
+     */
+    private Map<String, FeatureDefinition> listFeatures(String keyFilter, List<String> failed) {
+        Map<String, KeyState> listed = new HashMap<>();
+        String next = String.format("/kv?key=%s&api-version=1.0", encode(keyFilter))
+                + (label != null ? "&label=" + encode(label) : "");
+
+        try {
+            while (next != null) {
                 HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("Authorization", getAccessToken())
-                        .header("Content-Type", "application/json")
+                        .uri(URI.create(endpoint).resolve(next))
+                        .timeout(requestTimeout)
+                        .header("Authorization", tokenProvider.getAuthorizationHeader())
+                        .header("Accept", "application/json")
                         .build();
 
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    if (response.statusCode() != 200) {
+                        System.err.println("Failed to list " + keyFilter + ": " + response.statusCode());
+                        return null;
+                    }
+                    next = readPage(body, listed, failed);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list " + keyFilter + ": " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
 
-                if (response.statusCode() == 200) {
-                    String yamlValue = extractValueFromResponse(response.body());
+        states.keySet().retainAll(listed.keySet());
+        states.putAll(listed);
 
-                    FeatureDefinition def = yamlMapper.readValue(yamlValue, FeatureDefinition.class);
-                    features.put(key, def);
+        Map<String, FeatureDefinition> features = new HashMap<>(listed.size() * 4 / 3 + 1);
+        listed.forEach((key, state) -> features.put(key, state.definition));
+        return features;
+    }
 
+    /**
+     * Stream-parses one page of the list response into {@code listed}.
+     *
+     * @return the link to the next page, or {@code null} on the last page
+     */
+    private String readPage(InputStream body, Map<String, KeyState> listed, List<String> failed) throws IOException {
+        String next = null;
+        try (JsonParser parser = jsonMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("items".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readItem(parser, listed, failed);
+                    }
+                } else if ("@nextLink".equals(field)) {
+                    next = parser.getValueAsString();
                 } else {
-                    System.err.println("Failed to fetch " + key + ": " + response.statusCode());
+                    parser.skipChildren();
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
             }
         }
+        return next;
+    }
 
-        return features;
+    private void readItem(JsonParser parser, Map<String, KeyState> listed, List<String> failed) throws IOException {
+        String key = null;
+        String etag = null;
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "key" -> key = parser.getValueAsString();
+                case "etag" -> etag = parser.getValueAsString();
+                case "value" -> value = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        if (key == null) {
+            return;
+        }
+
+        KeyState previous = states.get(key);
+        if (previous != null && etag != null && etag.equals(previous.etag)) {
+            listed.put(key, previous);
+            return;
+        }
+        try {
+            listed.put(key, new KeyState(etag, parseDefinition(value)));
+        } catch (Exception e) {
+            System.err.println("Invalid feature definition for " + key + ": " + e.getMessage());
+            failed.add(key);
+            if (previous != null) {
+                listed.put(key, previous); // keep the last good definition
+            }
+        }
     }
 
-    private String getAccessToken() {
-        // Use Azure Managed Identity (DefaultAzureCredential)
-        var credential = new DefaultAzureCredentialBuilder().build();
-        var token = credential.getToken(
-                new com.azure.core.credential.TokenRequestContext()
-                        .addScopes("https://azconfig.io/.default"))
-                .block();
-        return "Bearer " + token.getToken();
+    private FeatureDefinition parseDefinition(String yamlValue) throws Exception {
+        return yamlLoader.loadFeature(yamlValue);
     }
 
-    private String extractValueFromResponse(String jsonResponse) throws Exception {
+    private static String extractValue(JsonNode body) {
         // App Config returns JSON; extract the "value" field which holds YAML
-        var mapper = new ObjectMapper();
-        return mapper.readTree(jsonResponse).get("value").asText();
-    }    
+        return body.get("value").asText();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /** A loaded key: its definition and the ETag it was served with. */
+    private static final class KeyState {
+        static final KeyState MISSING = new KeyState(null, null);
+
+        final String etag;
+        final FeatureDefinition definition;
+
+        KeyState(String etag, FeatureDefinition definition) {
+            this.etag = etag;
+            this.definition = definition;
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureHashing;
+
+/**
+ * Minimal Bloom filter over 64-bit hashes, used as a fast-reject in front
+ * of large targeting lists.
+ *
+ * <p>Sized at about 10 bits per element with 7 probes (~1% false positives).
+ * Probe positions are derived from a single 64-bit hash by double hashing,
+ * so a lookup allocates nothing and hashes the key only once.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_ELEMENT = 10;
+    private static final int PROBES = 7;
+
+    private final long[] words;
+    private final long bitCount;
+
+    BloomFilter(int expectedElements) {
+        long bits = Math.max(64, (long) expectedElements * BITS_PER_ELEMENT);
+        this.words = new long[(int) ((bits + 63) >>> 6)];
+        this.bitCount = (long) words.length << 6;
+    }
+
+    void add(long hash) {
+        long h = FeatureHashing.mix(hash);
+        long h1 = h;
+        long h2 = (h >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the hash was definitely never added
+     */
+    boolean mightContain(long hash) {
+        long h = FeatureHashing.mix(hash);
+        long h1 = h;
+        long h2 = (h >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
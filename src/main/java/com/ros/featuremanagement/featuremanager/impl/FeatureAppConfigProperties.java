@@ -12,8 +12,12 @@ public class FeatureAppConfigProperties {
 
     private String endpoint;
     private List<String> keys;
+    private String keyFilter;
     private String label;
     private Duration refreshInterval;
+    private int maxConcurrency = 16;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private String cacheFile;
 
     // --- getters ---
     public String getEndpoint() {
@@ -24,6 +28,14 @@ public class FeatureAppConfigProperties {
         return keys;
     }
 
+    /**
+     * Key filter (e.g. {@code Feature:*}) for loading all matching keys through
+     * the paged list endpoint. When set, {@link #getKeys()} is not used.
+     */
+    public String getKeyFilter() {
+        return keyFilter;
+    }
+
     public String getLabel() {
         return label;
     }
@@ -32,6 +44,22 @@ public class FeatureAppConfigProperties {
         return refreshInterval;
     }
 
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Local file holding the last successfully loaded features, used at
+     * startup before the first remote fetch completes. Disabled when unset.
+     */
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
     // --- setters ---
     public void setEndpoint(String endpoint) {
         this.endpoint = endpoint;
@@ -41,6 +69,10 @@ public class FeatureAppConfigProperties {
         this.keys = keys;
     }
 
+    public void setKeyFilter(String keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
     public void setLabel(String label) {
         this.label = label;
     }
@@ -48,4 +80,16 @@ public class FeatureAppConfigProperties {
     public void setRefreshInterval(Duration refreshInterval) {
         this.refreshInterval = refreshInterval;
     }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
 }
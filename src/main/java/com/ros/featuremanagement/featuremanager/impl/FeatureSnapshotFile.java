@@ -0,0 +1,439 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureRule;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact, versioned binary encoding of a {@link FeatureSnapshot}.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ * int    magic "FMSN"
+ * short  format version (2)
+ * long   snapshot version
+ * int    string count, then per string: int byte length, UTF-8 bytes
+ * int    metadata count, then per entry: int key ref, int value ref
+ * int    feature count, then per feature:
+ *          int key ref, int name ref, byte enabled, int filter count,
+ *          per filter: int name ref, value (parameters map),
+ *          rule (format 2 and later)
+ * int    CRC32C of all preceding bytes
+ * </pre>
+ *
+ * <p>A rule is a byte operator followed by its operands: {@code 0} for no
+ * rule; {@code 1} (all) or {@code 2} (any) with an int count and that many
+ * rules; {@code 3} (not) with one rule; {@code 4} (filter) with an int name
+ * ref and a parameters map. Files in format 1 have no rules and are still
+ * read.
+ *
+ * <p>Every string (keys, names, parameter names and string values) is stored
+ * once in the string table and referenced by index, so repeated values are
+ * interned both on disk and in the loaded definitions. Parameter values keep
+ * their parsed types (int, long, double, boolean, string, list, map).
+ *
+ * <p>Files are read through a read-only memory-mapped {@link FileChannel},
+ * which avoids copying the file through heap buffers and lets several JVMs on
+ * one host share the same pages of the page cache.
+ */
+public final class FeatureSnapshotFile {
+
+    static final int MAGIC = 0x464D534E; // "FMSN"
+    static final short FORMAT_VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte LIST = 7;
+    private static final byte MAP = 8;
+
+    private static final byte RULE_NONE = 0;
+    private static final byte RULE_ALL = 1;
+    private static final byte RULE_ANY = 2;
+    private static final byte RULE_NOT = 3;
+    private static final byte RULE_FILTER = 4;
+
+    private final FeatureSnapshot snapshot;
+    private final Map<String, String> metadata;
+
+    private FeatureSnapshotFile(FeatureSnapshot snapshot, Map<String, String> metadata) {
+        this.snapshot = snapshot;
+        this.metadata = Collections.unmodifiableMap(metadata);
+    }
+
+    public FeatureSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return free-form metadata stored alongside the snapshot
+     */
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Encodes a snapshot and its metadata.
+     */
+    public static byte[] encode(FeatureSnapshot snapshot, Map<String, String> metadata) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        metadata.forEach((k, v) -> {
+            intern(strings, k);
+            intern(strings, v);
+        });
+        snapshot.getFeatures().forEach((key, def) -> {
+            intern(strings, key);
+            intern(strings, def.getName());
+            for (FilterConfig filter : filters(def)) {
+                intern(strings, filter.getName());
+                collectStrings(strings, filter.getParameters());
+            }
+            collectRuleStrings(strings, def.getRule());
+        });
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(snapshot.getVersion());
+
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+
+            out.writeInt(metadata.size());
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                out.writeInt(strings.get(entry.getKey()));
+                out.writeInt(strings.get(entry.getValue()));
+            }
+
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, FeatureDefinition> entry : snapshot.getFeatures().entrySet()) {
+                FeatureDefinition def = entry.getValue();
+                List<FilterConfig> filters = filters(def);
+                out.writeInt(strings.get(entry.getKey()));
+                out.writeInt(strings.get(def.getName()));
+                out.writeByte(def.getEnabled() ? 1 : 0);
+                out.writeInt(filters.size());
+                for (FilterConfig filter : filters) {
+                    out.writeInt(strings.get(filter.getName()));
+                    writeValue(out, strings, filter.getParameters() != null ? filter.getParameters() : Map.of());
+                }
+                writeRule(out, strings, def.getRule());
+            }
+            out.flush();
+
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen for an in-memory stream
+        }
+    }
+
+    /**
+     * Writes a snapshot and its metadata to {@code file}.
+     *
+     * <p>The content is written to a temporary file in the same directory and
+     * then moved over {@code file}, so readers see either the previous or the
+     * new file, never a partially written one.
+     */
+    public static void write(Path file, FeatureSnapshot snapshot, Map<String, String> metadata) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, encode(snapshot, metadata));
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot file through a memory-mapped channel.
+     *
+     * @throws IOException if the file cannot be read, is not a snapshot file,
+     *         has an unsupported format version, or fails its checksum
+     */
+    public static FeatureSnapshotFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Decodes a snapshot from a buffer positioned at its first byte.
+     */
+    public static FeatureSnapshotFile decode(ByteBuffer buffer) throws IOException {
+        try {
+            int start = buffer.position();
+            int end = buffer.limit();
+            if (end - start < 4 + 2 + 8 + 4) {
+                throw new IOException("Snapshot file is truncated");
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.limit(end - 4);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(end - 4)) {
+                throw new IOException("Snapshot file checksum mismatch");
+            }
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a feature snapshot file");
+            }
+            short format = buffer.getShort();
+            if (format != 1 && format != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version: " + format);
+            }
+            long version = buffer.getLong();
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] utf8 = new byte[buffer.getInt()];
+                buffer.get(utf8);
+                strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+
+            int metadataCount = buffer.getInt();
+            Map<String, String> metadata = new LinkedHashMap<>();
+            for (int i = 0; i < metadataCount; i++) {
+                metadata.put(strings[buffer.getInt()], strings[buffer.getInt()]);
+            }
+
+            int featureCount = buffer.getInt();
+            Map<String, FeatureDefinition> features = new HashMap<>(featureCount * 4 / 3 + 1);
+            for (int i = 0; i < featureCount; i++) {
+                String key = strings[buffer.getInt()];
+                String name = strings[buffer.getInt()];
+                boolean enabled = buffer.get() != 0;
+                int filterCount = buffer.getInt();
+                List<FilterConfig> filters = new ArrayList<>(filterCount);
+                for (int j = 0; j < filterCount; j++) {
+                    String filterName = strings[buffer.getInt()];
+                    filters.add(new FilterConfig(filterName, readParameters(buffer, strings)));
+                }
+                FeatureRule rule = format >= 2 ? readRule(buffer, strings) : null;
+                features.put(key, new FeatureDefinition(name, enabled, filters, rule));
+            }
+            return new FeatureSnapshotFile(new FeatureSnapshot(version, features), metadata);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot file: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<FilterConfig> filters(FeatureDefinition def) {
+        return def.getFilters() != null ? def.getFilters() : List.of();
+    }
+
+    private static void collectRuleStrings(Map<String, Integer> strings, FeatureRule rule) {
+        if (rule == null) {
+            return;
+        }
+        if (rule.getFilter() != null) {
+            intern(strings, rule.getFilter().getName());
+            collectStrings(strings, rule.getFilter().getParameters());
+        }
+        for (FeatureRule child : rule.getRules()) {
+            collectRuleStrings(strings, child);
+        }
+    }
+
+    private static void writeRule(DataOutputStream out, Map<String, Integer> strings, FeatureRule rule)
+            throws IOException {
+        if (rule == null) {
+            out.writeByte(RULE_NONE);
+            return;
+        }
+        switch (rule.getOperator()) {
+            case ALL, ANY -> {
+                out.writeByte(rule.getOperator() == FeatureRule.Operator.ALL ? RULE_ALL : RULE_ANY);
+                out.writeInt(rule.getRules().size());
+                for (FeatureRule child : rule.getRules()) {
+                    writeRule(out, strings, child);
+                }
+            }
+            case NOT -> {
+                out.writeByte(RULE_NOT);
+                writeRule(out, strings, rule.getRules().get(0));
+            }
+            case FILTER -> {
+                FilterConfig filter = rule.getFilter();
+                out.writeByte(RULE_FILTER);
+                out.writeInt(strings.get(filter.getName()));
+                writeValue(out, strings, filter.getParameters() != null ? filter.getParameters() : Map.of());
+            }
+        }
+    }
+
+    private static FeatureRule readRule(ByteBuffer in, String[] strings) throws IOException {
+        byte operator = in.get();
+        switch (operator) {
+            case RULE_NONE:
+                return null;
+            case RULE_ALL:
+            case RULE_ANY: {
+                int count = in.getInt();
+                List<FeatureRule> rules = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    rules.add(requireRule(readRule(in, strings)));
+                }
+                return operator == RULE_ALL ? FeatureRule.all(rules) : FeatureRule.any(rules);
+            }
+            case RULE_NOT:
+                return FeatureRule.not(requireRule(readRule(in, strings)));
+            case RULE_FILTER: {
+                String name = strings[in.getInt()];
+                return FeatureRule.filter(new FilterConfig(name, readParameters(in, strings)));
+            }
+            default:
+                throw new IOException("Unknown rule operator: " + operator);
+        }
+    }
+
+    private static FeatureRule requireRule(FeatureRule rule) throws IOException {
+        if (rule == null) {
+            throw new IOException("Missing nested rule");
+        }
+        return rule;
+    }
+
+    private static void intern(Map<String, Integer> strings, String s) {
+        strings.putIfAbsent(s, strings.size());
+    }
+
+    private static void collectStrings(Map<String, Integer> strings, Object value) {
+        if (value instanceof String) {
+            intern(strings, (String) value);
+        } else if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                collectStrings(strings, item);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                intern(strings, String.valueOf(entry.getKey()));
+                collectStrings(strings, entry.getValue());
+            }
+        } else if (value != null && !(value instanceof Number) && !(value instanceof Boolean)) {
+            intern(strings, value.toString());
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Map<String, Integer> strings, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, strings, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                out.writeInt(strings.get(String.valueOf(entry.getKey())));
+                writeValue(out, strings, entry.getValue());
+            }
+        } else {
+            out.writeByte(STRING);
+            out.writeInt(strings.get(value.toString()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readParameters(ByteBuffer in, String[] strings) throws IOException {
+        Object value = readValue(in, strings);
+        if (!(value instanceof Map)) {
+            throw new IOException("Filter parameters must be a map");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static Object readValue(ByteBuffer in, String[] strings) throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return strings[in.getInt()];
+            case INT:
+                return in.getInt();
+            case LONG:
+                return in.getLong();
+            case DOUBLE:
+                return in.getDouble();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case LIST: {
+                int size = in.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, strings));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case MAP: {
+                int size = in.getInt();
+                Map<String, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    String key = strings[in.getInt()];
+                    map.put(key, readValue(in, strings));
+                }
+                return Collections.unmodifiableMap(map);
+            }
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+}
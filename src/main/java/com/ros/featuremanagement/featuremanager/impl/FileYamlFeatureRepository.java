@@ -0,0 +1,169 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Feature repository backed by a YAML file on the filesystem.
+ *
+ * <p>Uses the same document format as {@link YamlFeatureRepository}, but only
+ * reloads when the file actually changed: {@link #refresh()} first compares
+ * the file's modification time and size, then a checksum of its contents,
+ * and skips parsing when both match the last load. If a changed file fails
+ * to parse, the last good snapshot stays in place; if only some entries are
+ * invalid, those features keep their previous definitions.
+ *
+ * <p>{@link #startWatching(Duration)} additionally reloads as soon as the
+ * file changes, using a {@link WatchService} on its directory. Bursts of
+ * writes are debounced into a single reload. Call {@link #close()} to stop
+ * watching.
+ */
+public class FileYamlFeatureRepository extends AbstractSnapshotFeatureRepository implements AutoCloseable {
+
+    private final Path file;
+
+    // Identity of the last loaded file contents; guarded by "this"
+    private long lastModified = Long.MIN_VALUE;
+    private long lastSize = -1;
+    private long lastChecksum = -1;
+
+    private volatile WatchService watchService;
+    private volatile Thread watcher;
+
+    public FileYamlFeatureRepository(Path file) {
+        this.file = file.toAbsolutePath();
+        if (!reload()) {
+            throw new IllegalStateException("Failed to load features from YAML: " + file);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Reloads the file if it changed and reports the attempt to the refresh
+     * listeners.
+     *
+     * @return false if the file could not be read or parsed
+     */
+    private boolean reload() {
+        long start = System.nanoTime();
+        boolean loaded = load();
+        reportRefresh(System.nanoTime() - start, !loaded);
+        return loaded;
+    }
+
+    private synchronized boolean load() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (modified == lastModified && attrs.size() == lastSize) {
+                return true;
+            }
+
+            byte[] content = Files.readAllBytes(file);
+            CRC32C crc = new CRC32C();
+            crc.update(content);
+            long checksum = crc.getValue();
+
+            if (checksum != lastChecksum || content.length != lastSize) {
+                Map<String, FeatureDefinition> features = YamlFeatureRepository.parse(new ByteArrayInputStream(content), getAllFeatures());
+                publish(features);
+                lastChecksum = checksum;
+            }
+            lastModified = modified;
+            lastSize = content.length;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to reload features from " + file + ", keeping last good snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon thread that reloads the file when it changes.
+     *
+     * @param debounce quiet period after the last change event before reloading
+     */
+    public synchronized void startWatching(Duration debounce) throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        WatchService service = file.getFileSystem().newWatchService();
+        file.getParent().register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(() -> watch(service, debounce.toMillis()), "feature-yaml-watcher");
+        thread.setDaemon(true);
+        watchService = service;
+        watcher = thread;
+        thread.start();
+    }
+
+    private void watch(WatchService service, long debounceMillis) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+                // debounce: wait until no more events arrive for the quiet period
+                while (changed) {
+                    WatchKey more = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (more == null) {
+                        reload();
+                        break;
+                    }
+                    drain(more);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    /**
+     * @return true if any event in the key concerns the watched file
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (context instanceof Path && file.getFileName().equals(context))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        Thread thread = watcher;
+        WatchService service = watchService;
+        watcher = null;
+        watchService = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (service != null) {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for reading raw filter parameters into typed values.
+ * Used by the built-in filters when they are bound at load time.
+ */
+final class FilterParameters {
+
+    private FilterParameters() {
+    }
+
+    static String getString(Map<String, Object> params, String key) {
+        Object value = params != null ? params.get(key) : null;
+        return value != null ? value.toString() : null;
+    }
+
+    static double getDouble(Map<String, Object> params, String key, double defaultValue) {
+        Object value = params != null ? params.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter '" + key + "' is not a number: " + value);
+        }
+    }
+
+    static List<String> getStringList(Map<String, Object> params, String key) {
+        Object value = params != null ? params.get(key) : null;
+        if (value == null) {
+            return List.of();
+        }
+        if (value instanceof List) {
+            List<String> result = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                if (item != null) {
+                    result.add(item.toString());
+                }
+            }
+            return result;
+        }
+        return List.of(value.toString());
+    }
+}
@@ -4,35 +4,19 @@ import com.ros.featuremanagement.featuremanager.FeatureDefinition;
 import com.ros.featuremanagement.featuremanager.FeatureRepository;
 import com.ros.featuremanagement.featuremanager.FilterConfig;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class InMemoryFeatureRepository implements FeatureRepository {
-    private final Map<String, FeatureDefinition> cache = new HashMap<>();
+public class InMemoryFeatureRepository extends AbstractSnapshotFeatureRepository {
 
     public InMemoryFeatureRepository() {
         getDefaultFeatures(this);
     }
 
-    public void addFeature(FeatureDefinition def) {
-        cache.put(def.getName(), def);
-    }
-
-    @Override
-    public FeatureDefinition getFeature(String name) {
-        return cache.get(name);
-    }
-
-    @Override
-    public Map<String, FeatureDefinition> getAllFeatures() {
-        return Collections.unmodifiableMap(cache);
-    }
-
     @Override
     public void refresh() {
-        // no-op for in-memory
+        // no-op for in-memory, but still counts as a successful refresh
+        reportRefresh(0, false);
     }
 
     private void getDefaultFeatures(FeatureRepository repo) {
@@ -0,0 +1,98 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+import com.ros.featuremanagement.featuremanager.FeatureHashing;
+
+import java.util.Map;
+
+/**
+ * "Percentage" filter - enables a feature for a stable fraction of users.
+ *
+ * <p>Parameters:
+ * <ul>
+ *     <li>percentage - fraction between 0.0 and 1.0 (default 0.0)</li>
+ *     <li>salt - optional; changing it reshuffles which users are included
+ *         (default: the feature name)</li>
+ * </ul>
+ *
+ * <p>Each user is placed in a 32-bit bucket derived from a hash of the
+ * feature name, salt and {@link FeatureContext#getUserId()}. The same user
+ * therefore always gets the same result for a given feature, and raising
+ * the percentage only ever adds users. The feature/salt hash and bucket
+ * boundary are computed when the filter is bound; the user hash is
+ * computed once per context. Contexts without a user id are never included.
+ */
+public class PercentageFilter implements FeatureFilter {
+
+    private static final double BUCKETS = 4294967296.0; // 2^32
+
+    private static final FilterSchema SCHEMA = FilterSchema.of(
+            FilterSchema.Parameter.optional("percentage", FilterSchema.Type.NUMBER).range(0.0, 1.0),
+            FilterSchema.Parameter.optional("salt", FilterSchema.Type.STRING));
+
+    @Override
+    public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+        return bind(null, parameters).evaluate(context);
+    }
+
+    @Override
+    public FilterSchema getSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        double percentage = FilterParameters.getDouble(parameters, "percentage", 0.0);
+        String salt = FilterParameters.getString(parameters, "salt");
+
+        long seed = FeatureHashing.hash(FeatureHashing.hash(featureName), ":");
+        seed = FeatureHashing.hash(seed, salt != null ? salt : featureName);
+
+        if (percentage <= 0.0) {
+            return BoundFilter.NEVER;
+        }
+        if (percentage >= 1.0) {
+            return new PureBoundFilter() {
+                @Override
+                public boolean evaluate(FeatureContext ctx) {
+                    return ctx.getUserId() != null;
+                }
+            };
+        }
+
+        long threshold = (long) (percentage * BUCKETS);
+        long featureSeed = seed;
+        return new PureBoundFilter() {
+            @Override
+            public boolean evaluate(FeatureContext ctx) {
+                return ctx.getUserId() != null && bucket(featureSeed, ctx.getUserHash()) < threshold;
+            }
+        };
+    }
+
+    /**
+     * @return the user's bucket for a feature, in {@code [0, 2^32)}
+     */
+    static long bucket(long featureSeed, long userHash) {
+        return FeatureHashing.mix(featureSeed ^ userHash) >>> 32;
+    }
+}
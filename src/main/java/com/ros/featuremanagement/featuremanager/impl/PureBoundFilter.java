@@ -0,0 +1,22 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+
+/**
+ * Base class of the built-in bound filters. They only inspect the context
+ * and their pre-bound parameters, so they are cheap and free of side effects
+ * and may be run in any order.
+ */
+abstract class PureBoundFilter implements BoundFilter {
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDictionary;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+
+import java.util.Map;
+
+/**
+ * "RoleBased" filter - enables a feature for users holding a given role.
+ *
+ * <p>Parameters:
+ * <ul>
+ *     <li>role - the required role</li>
+ * </ul>
+ *
+ * <p>The role is interned in the {@link FeatureDictionary} when the filter is
+ * bound, so evaluation is a single bit test on the context's role bits.
+ */
+public class RoleBasedFilter implements FeatureFilter {
+
+    private static final FilterSchema SCHEMA = FilterSchema.of(
+            FilterSchema.Parameter.required("role", FilterSchema.Type.STRING));
+
+    @Override
+    public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+        return bind(null, parameters).evaluate(context);
+    }
+
+    @Override
+    public FilterSchema getSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        String role = FilterParameters.getString(parameters, "role");
+        if (role == null) {
+            return BoundFilter.NEVER;
+        }
+        int roleId = FeatureDictionary.global().intern(role);
+        return new PureBoundFilter() {
+            @Override
+            public boolean evaluate(FeatureContext ctx) {
+                return ctx.getRoleBits().get(roleId);
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ros.featuremanagement.featuremanager.ExposureEvent;
+import com.ros.featuremanagement.featuremanager.ExposureSink;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes exposure events as JSON lines to local files, starting a new file
+ * once the current one reaches {@code maxFileBytes}.
+ *
+ * <p>Files are named {@code <prefix>-<epoch millis>-<sequence>.jsonl} in the
+ * given directory, so they sort in the order they were written. Each line
+ * holds one event:
+ * <pre>
+ * {"ts":1700000000000,"feature":"Beta","user":"alice","value":true,"version":12,"source":"IS_ENABLED"}
+ * </pre>
+ * Every batch is flushed to the file before {@link #write} returns.
+ */
+public class RollingFileExposureSink implements ExposureSink {
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileBytes;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private OutputStream out;
+    private Path current;
+    private long currentBytes;
+    private int sequence;
+
+    public RollingFileExposureSink(Path directory, String prefix, long maxFileBytes) throws IOException {
+        if (maxFileBytes <= 0) {
+            throw new IllegalArgumentException("maxFileBytes must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    @Override
+    public void write(List<ExposureEvent> batch) throws IOException {
+        for (ExposureEvent event : batch) {
+            if (out == null || currentBytes >= maxFileBytes) {
+                roll();
+            }
+            currentBytes += writeLine(event);
+        }
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private int writeLine(ExposureEvent event) throws IOException {
+        CountingStream counting = new CountingStream(out);
+        try (JsonGenerator json = jsonFactory.createGenerator(counting)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeNumberField("ts", event.getTimestamp());
+            json.writeStringField("feature", event.getFeatureName());
+            json.writeStringField("user", event.getUserId());
+            json.writeBooleanField("value", event.isEnabled());
+            json.writeNumberField("version", event.getVersion());
+            json.writeStringField("source", event.getSource().name());
+            json.writeEndObject();
+        }
+        counting.write('\n');
+        return counting.count;
+    }
+
+    private void roll() throws IOException {
+        close();
+        current = directory.resolve(prefix + "-" + System.currentTimeMillis() + "-" + (sequence++) + ".jsonl");
+        out = new BufferedOutputStream(Files.newOutputStream(current,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+        currentBytes = 0;
+    }
+
+    /**
+     * @return the file currently written to, or {@code null} before the first write
+     */
+    public Path getCurrentFile() {
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /** Counts the bytes of one line on their way to the file. */
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream target;
+        int count;
+
+        CountingStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * Feature repository backed by a binary snapshot file written with
+ * {@link FeatureSnapshotFile}.
+ *
+ * <p>The file is memory-mapped and decoded without any YAML or JSON parsing,
+ * so services can start from a snapshot produced elsewhere (for example by a
+ * deployment step or another repository) without contacting the original
+ * source. {@link #refresh()} reloads the file when its modification time or
+ * size changed; if a changed file cannot be read, the last good snapshot stays
+ * in place.
+ */
+public class SnapshotFileFeatureRepository extends AbstractSnapshotFeatureRepository {
+
+    private final Path file;
+
+    // guarded by "this"
+    private long lastModified = Long.MIN_VALUE;
+    private long lastSize = -1;
+    private volatile Map<String, String> metadata = Map.of();
+
+    public SnapshotFileFeatureRepository(Path file) {
+        this.file = file.toAbsolutePath();
+        if (!reload()) {
+            throw new IllegalStateException("Failed to load feature snapshot: " + file);
+        }
+    }
+
+    @Override
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * @return the metadata stored in the last loaded snapshot file
+     */
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Reloads the file if it changed and reports the attempt to the refresh
+     * listeners.
+     *
+     * @return false if the file could not be read or parsed
+     */
+    private boolean reload() {
+        long start = System.nanoTime();
+        boolean loaded = load();
+        reportRefresh(System.nanoTime() - start, !loaded);
+        return loaded;
+    }
+
+    private synchronized boolean load() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (modified == lastModified && attrs.size() == lastSize) {
+                return true;
+            }
+            FeatureSnapshotFile loaded = FeatureSnapshotFile.read(file);
+            FeatureSnapshot snapshot = loaded.getSnapshot();
+            if (!snapshot.getFeatures().equals(getSnapshot().getFeatures())) {
+                publish(snapshot.getFeatures());
+            }
+            metadata = loaded.getMetadata();
+            lastModified = modified;
+            lastSize = attrs.size();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to reload feature snapshot " + file + ", keeping last good snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+}
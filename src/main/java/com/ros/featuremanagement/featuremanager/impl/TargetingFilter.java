@@ -0,0 +1,76 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDictionary;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * "Targeting" filter - enables a feature for specific users or groups.
+ *
+ * <p>Parameters:
+ * <ul>
+ *     <li>users - list of user ids</li>
+ *     <li>groups - list of groups, matched against the context roles</li>
+ *     <li>permissions - list of permissions, matched against the context permissions</li>
+ * </ul>
+ *
+ * <p>The user list is materialized into a {@link UserIdSet} when the filter is
+ * bound: a hash set for small lists, a Bloom-filtered compact table for large
+ * ones. Groups and permissions are interned in the {@link FeatureDictionary}
+ * when the filter is bound and each matched with a single bitset intersection.
+ * The feature is enabled if any of the three matches.
+ */
+public class TargetingFilter implements FeatureFilter {
+
+    private static final FilterSchema SCHEMA = FilterSchema.of(
+            FilterSchema.Parameter.optional("users", FilterSchema.Type.STRING_LIST),
+            FilterSchema.Parameter.optional("groups", FilterSchema.Type.STRING_LIST),
+            FilterSchema.Parameter.optional("permissions", FilterSchema.Type.STRING_LIST));
+
+    @Override
+    public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+        return bind(null, parameters).evaluate(context);
+    }
+
+    @Override
+    public FilterSchema getSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        UserIdSet users = UserIdSet.of(FilterParameters.getStringList(parameters, "users"));
+        BitSet groups = FeatureDictionary.global().internAll(FilterParameters.getStringList(parameters, "groups"));
+        BitSet permissions = FeatureDictionary.global().internAll(
+                FilterParameters.getStringList(parameters, "permissions"));
+        return new PureBoundFilter() {
+            @Override
+            public boolean evaluate(FeatureContext ctx) {
+                return users.contains(ctx.getUserId(), ctx.getUserHash())
+                        || ctx.getRoleBits().intersects(groups)
+                        || ctx.getPermissionBits().intersects(permissions);
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * "TimeBased" filter - enables a feature between a start and end time.
+ *
+ * <p>Parameters (ISO local date-time, system time zone):
+ * <ul>
+ *     <li>start - inclusive start of the window (default: unbounded)</li>
+ *     <li>end - inclusive end of the window (default: unbounded)</li>
+ * </ul>
+ *
+ * <p>The window is converted to epoch millis when the filter is bound,
+ * so evaluation is a pair of long comparisons. Cached results expire at
+ * the next window boundary.
+ */
+public class TimeBasedFilter implements FeatureFilter {
+
+    private static final FilterSchema SCHEMA = FilterSchema.of(
+            FilterSchema.Parameter.optional("start", FilterSchema.Type.DATE_TIME),
+            FilterSchema.Parameter.optional("end", FilterSchema.Type.DATE_TIME));
+
+    @Override
+    public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+        return bind(null, parameters).evaluate(context);
+    }
+
+    @Override
+    public FilterSchema getSchema() {
+        return SCHEMA;
+    }
+
+    @Override
+    public FilterCost getCost() {
+        return FilterCost.CHEAP;
+    }
+
+    @Override
+    public boolean isReorderable() {
+        return true;
+    }
+
+    @Override
+    public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+        long start = toEpochMillis(FilterParameters.getString(parameters, "start"), Long.MIN_VALUE);
+        long end = toEpochMillis(FilterParameters.getString(parameters, "end"), Long.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        if (now > end) {
+            return BoundFilter.NEVER; // the window has closed for good
+        }
+        if (now >= start && end == Long.MAX_VALUE) {
+            return BoundFilter.ALWAYS; // open-ended window that has already started
+        }
+        return new TimeWindow(start, end);
+    }
+
+    private static final class TimeWindow extends PureBoundFilter {
+        private final long start;
+        private final long end;
+
+        TimeWindow(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean evaluate(FeatureContext context) {
+            long now = System.currentTimeMillis();
+            return now >= start && now <= end;
+        }
+
+        @Override
+        public long cacheableUntil(long nowMillis) {
+            if (nowMillis < start) {
+                return start;
+            }
+            if (nowMillis <= end) {
+                return end == Long.MAX_VALUE ? end : end + 1;
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long toEpochMillis(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
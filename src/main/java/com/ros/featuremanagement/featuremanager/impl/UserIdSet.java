@@ -0,0 +1,131 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.ros.featuremanagement.featuremanager.FeatureHashing;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Set of user ids materialized once when a targeting filter is bound.
+ *
+ * <p>Lookups take the user id together with its precomputed
+ * {@link FeatureHashing#hash(CharSequence)} (see
+ * {@link com.ros.featuremanagement.featuremanager.FeatureContext#getUserHash()})
+ * so the id is not rehashed per filter.
+ *
+ * <p>Small lists use a plain {@link HashSet}. Lists of
+ * {@value #COMPACT_THRESHOLD} ids or more use a {@link BloomFilter}
+ * fast-reject in front of a compact open-addressing table. The table stores
+ * the sorted ids in one shared {@code char[]}, so it holds no per-id
+ * {@code String} objects, and it still compares the full id on a hash match.
+ */
+abstract class UserIdSet {
+
+    static final int COMPACT_THRESHOLD = 1024;
+
+    static final UserIdSet EMPTY = new UserIdSet() {
+        @Override
+        boolean contains(String userId, long userHash) {
+            return false;
+        }
+    };
+
+    abstract boolean contains(String userId, long userHash);
+
+    static UserIdSet of(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return EMPTY;
+        }
+        if (userIds.size() < COMPACT_THRESHOLD) {
+            return new Hashed(new HashSet<>(userIds));
+        }
+        return new Compact(new TreeSet<>(userIds).toArray(new String[0]));
+    }
+
+    private static final class Hashed extends UserIdSet {
+        private final Set<String> ids;
+
+        Hashed(Set<String> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        boolean contains(String userId, long userHash) {
+            return userId != null && ids.contains(userId);
+        }
+    }
+
+    private static final class Compact extends UserIdSet {
+        private final BloomFilter bloom;
+        private final char[] chars;
+        private final int[] offsets;   // id i spans chars[offsets[i], offsets[i + 1])
+        private final long[] hashes;   // per id
+        private final int[] slots;     // open addressing: id index + 1, 0 = empty
+        private final int mask;
+
+        Compact(String[] sorted) {
+            int n = sorted.length;
+            this.bloom = new BloomFilter(n);
+            this.offsets = new int[n + 1];
+            this.hashes = new long[n];
+
+            int length = 0;
+            for (int i = 0; i < n; i++) {
+                offsets[i] = length;
+                length += sorted[i].length();
+            }
+            offsets[n] = length;
+            this.chars = new char[length];
+
+            int capacity = Integer.highestOneBit(Math.max(2, n * 2 - 1)) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+
+            for (int i = 0; i < n; i++) {
+                sorted[i].getChars(0, sorted[i].length(), chars, offsets[i]);
+                long hash = FeatureHashing.hash(sorted[i]);
+                hashes[i] = hash;
+                bloom.add(hash);
+
+                int slot = (int) FeatureHashing.mix(hash) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        @Override
+        boolean contains(String userId, long userHash) {
+            if (userId == null || !bloom.mightContain(userHash)) {
+                return false;
+            }
+            int slot = (int) FeatureHashing.mix(userHash) & mask;
+            int entry;
+            while ((entry = slots[slot]) != 0) {
+                int i = entry - 1;
+                if (hashes[i] == userHash && matches(i, userId)) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        private boolean matches(int i, String userId) {
+            int from = offsets[i];
+            int to = offsets[i + 1];
+            if (to - from != userId.length()) {
+                return false;
+            }
+            for (int c = 0; c < userId.length(); c++) {
+                if (chars[from + c] != userId.charAt(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
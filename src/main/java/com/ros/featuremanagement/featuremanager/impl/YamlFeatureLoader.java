@@ -0,0 +1,307 @@
+package com.ros.featuremanagement.featuremanager.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureRule;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming loader for feature YAML documents.
+ *
+ * <p>Reads the token stream directly into {@link FeatureDefinition}s one
+ * feature at a time, without first binding the whole document into an
+ * intermediate object tree, so peak memory during a reload is proportional
+ * to a single feature. Instances are thread-safe and meant to be reused.
+ *
+ * <p>Document format:
+ * <pre>
+ * features:
+ *   - name: AdminOnlyFeature
+ *     enabled: true
+ *     filters:
+ *       - name: RoleBased
+ *         parameters:
+ *           role: admin
+ * </pre>
+ *
+ * <p>Instead of {@code filters}, a feature may declare a {@code rule}
+ * combining filters with {@code all}, {@code any} and {@code not} (see
+ * {@link FeatureRule}):
+ * <pre>
+ *   - name: AdminRollout
+ *     enabled: true
+ *     rule:
+ *       all:
+ *         - name: RoleBased
+ *           parameters:
+ *             role: admin
+ *         - not:
+ *             name: Percentage
+ *             parameters:
+ *               percentage: 0.8
+ * </pre>
+ *
+ * <p>A feature with invalid content (missing name, wrong value types,
+ * duplicate name) is skipped and reported in {@link LoadResult#getErrors()}
+ * while the rest of the document still loads; if the invalid entry had a
+ * name, it is listed in {@link LoadResult#getFailedNames()}. Only malformed YAML aborts
+ * the load with an {@link IOException}.
+ */
+public final class YamlFeatureLoader {
+
+    private static final TypeReference<Map<String, Object>> PARAMETERS = new TypeReference<>() {};
+
+    private final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+
+    /**
+     * Loads a document with a top-level {@code features} list.
+     */
+    public LoadResult load(InputStream in) throws IOException {
+        Map<String, FeatureDefinition> features = new HashMap<>();
+        List<String> errors = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return new LoadResult(features, errors, failed); // empty document
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a mapping with a 'features' list");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                token = parser.nextToken();
+                if ("features".equals(field) && token == JsonToken.START_ARRAY) {
+                    int index = 0;
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (token == JsonToken.START_OBJECT) {
+                            FeatureDefinition def = readFeature(parser, "features[" + index + "]", errors, failed);
+                            if (def != null && features.putIfAbsent(def.getName(), def) != null) {
+                                errors.add("features[" + index + "] (" + def.getName() + "): duplicate feature name");
+                            }
+                        } else {
+                            errors.add("features[" + index + "]: expected a mapping");
+                            parser.skipChildren();
+                        }
+                        index++;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new LoadResult(features, errors, failed);
+    }
+
+    /**
+     * Loads a document holding a single feature mapping (as stored in one
+     * App Configuration key).
+     *
+     * @throws IllegalArgumentException if the feature content is invalid
+     */
+    public FeatureDefinition loadFeature(String yaml) throws IOException {
+        List<String> errors = new ArrayList<>();
+        try (JsonParser parser = mapper.getFactory().createParser(yaml)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a feature mapping");
+            }
+            FeatureDefinition def = readFeature(parser, "feature", errors, new HashSet<>());
+            if (def == null) {
+                throw new IllegalArgumentException(String.join("; ", errors));
+            }
+            return def;
+        }
+    }
+
+    /**
+     * Reads one feature; the parser is positioned on its START_OBJECT and is
+     * left on the matching END_OBJECT.
+     *
+     * @return the definition, or {@code null} if it was invalid (reported in
+     *         {@code errors}, and its name, if any, added to {@code failed})
+     */
+    private FeatureDefinition readFeature(JsonParser parser, String path, List<String> errors, Set<String> failed)
+            throws IOException {
+        String name = null;
+        boolean enabled = false;
+        List<FilterConfig> filters = new ArrayList<>();
+        FeatureRule rule = null;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "name" -> {
+                    if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                        name = parser.getValueAsString();
+                    } else {
+                        error = "'name' must be a string";
+                        parser.skipChildren();
+                    }
+                }
+                case "enabled" -> {
+                    if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+                        enabled = parser.getBooleanValue();
+                    } else {
+                        error = "'enabled' must be true or false";
+                        parser.skipChildren();
+                    }
+                }
+                case "filters" -> {
+                    if (token == JsonToken.START_ARRAY) {
+                        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                            if (token == JsonToken.START_OBJECT) {
+                                FilterConfig filter = readFilter(parser);
+                                if (filter != null) {
+                                    filters.add(filter);
+                                } else {
+                                    error = "filter without a name";
+                                }
+                            } else {
+                                error = "'filters' entries must be mappings";
+                                parser.skipChildren();
+                            }
+                        }
+                    } else if (token != JsonToken.VALUE_NULL) {
+                        error = "'filters' must be a list";
+                        parser.skipChildren();
+                    }
+                }
+                case "rule" -> {
+                    // rules are small; read the subtree and convert it
+                    JsonNode node = mapper.readTree(parser);
+                    if (node != null && !node.isNull()) {
+                        try {
+                            rule = toRule(node, "rule");
+                        } catch (IllegalArgumentException e) {
+                            error = e.getMessage();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (error == null && name == null) {
+            error = "missing 'name'";
+        }
+        if (error == null && rule != null && !filters.isEmpty()) {
+            error = "'filters' and 'rule' cannot be combined";
+        }
+        if (error != null) {
+            errors.add(path + (name != null ? " (" + name + ")" : "") + ": " + error);
+            if (name != null) {
+                failed.add(name);
+            }
+            return null;
+        }
+        return new FeatureDefinition(name, enabled, filters, rule);
+    }
+
+    /**
+     * Converts one rule node: a mapping with a single {@code all}, {@code any}
+     * or {@code not} entry, or a filter mapping with a {@code name}.
+     *
+     * @throws IllegalArgumentException if the node is not a valid rule
+     */
+    private FeatureRule toRule(JsonNode node, String path) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("'" + path + "' must be a mapping");
+        }
+        if (node.has("all") || node.has("any")) {
+            String operator = node.has("all") ? "all" : "any";
+            JsonNode items = node.get(operator);
+            if (node.size() != 1 || !items.isArray()) {
+                throw new IllegalArgumentException("'" + path + "." + operator + "' must be the only entry and a list");
+            }
+            List<FeatureRule> rules = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                rules.add(toRule(items.get(i), path + "." + operator + "[" + i + "]"));
+            }
+            return "all".equals(operator) ? FeatureRule.all(rules) : FeatureRule.any(rules);
+        }
+        if (node.has("not")) {
+            if (node.size() != 1) {
+                throw new IllegalArgumentException("'" + path + ".not' must be the only entry");
+            }
+            return FeatureRule.not(toRule(node.get("not"), path + ".not"));
+        }
+        JsonNode name = node.get("name");
+        if (name == null || !name.isValueNode() || name.isNull()) {
+            throw new IllegalArgumentException("'" + path + "' needs 'all', 'any', 'not' or a filter 'name'");
+        }
+        JsonNode parameters = node.get("parameters");
+        if (parameters != null && !parameters.isNull() && !parameters.isObject()) {
+            throw new IllegalArgumentException("'" + path + ".parameters' must be a mapping");
+        }
+        Map<String, Object> values = parameters != null && parameters.isObject()
+                ? mapper.convertValue(parameters, PARAMETERS)
+                : new HashMap<>();
+        return FeatureRule.filter(new FilterConfig(name.asText(), values));
+    }
+
+    private FilterConfig readFilter(JsonParser parser) throws IOException {
+        String name = null;
+        Map<String, Object> parameters = new HashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("name".equals(field) && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                name = parser.getValueAsString();
+            } else if ("parameters".equals(field) && token == JsonToken.START_OBJECT) {
+                parameters = mapper.readValue(parser, PARAMETERS);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name != null ? new FilterConfig(name, parameters) : null;
+    }
+
+    /**
+     * The features loaded from a document and the per-entry errors encountered.
+     */
+    public static final class LoadResult {
+        private final Map<String, FeatureDefinition> features;
+        private final List<String> errors;
+        private final Set<String> failedNames;
+
+        LoadResult(Map<String, FeatureDefinition> features, List<String> errors, Set<String> failedNames) {
+            this.features = Collections.unmodifiableMap(features);
+            this.errors = Collections.unmodifiableList(errors);
+            this.failedNames = Collections.unmodifiableSet(failedNames);
+        }
+
+        public Map<String, FeatureDefinition> getFeatures() {
+            return features;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the names of invalid entries that had a name
+         */
+        public Set<String> getFailedNames() {
+            return failedNames;
+        }
+    }
+}
@@ -1,110 +1,69 @@
 package com.ros.featuremanagement.featuremanager.impl;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.ros.featuremanagement.featuremanager.FeatureDefinition;
-import com.ros.featuremanagement.featuremanager.FeatureRepository;
-import com.ros.featuremanagement.featuremanager.FilterConfig;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
 
-public class YamlFeatureRepository implements FeatureRepository {
+public class YamlFeatureRepository extends AbstractSnapshotFeatureRepository {
+
+    private static final YamlFeatureLoader LOADER = new YamlFeatureLoader();
 
     private final String yamlPath;
-    private Map<String, FeatureDefinition> cache = new HashMap<>();
 
     public YamlFeatureRepository(String yamlPath) {
         this.yamlPath = yamlPath;
         refresh();
     }
 
-    @Override
-    public FeatureDefinition getFeature(String name) {
-        return cache.get(name);
-    }
-
-    @Override
-    public Map<String, FeatureDefinition> getAllFeatures() {
-        return Collections.unmodifiableMap(cache);
-    }
-
     @Override
     public void refresh() {
+        long start = System.nanoTime();
+        boolean failed = true;
         try (InputStream in = getClass().getClassLoader().getResourceAsStream(yamlPath)) {
             if (in == null) {
                 throw new IllegalStateException("Feature YAML not found: " + yamlPath);
             }
 
-            ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-            FeatureYamlRoot root = mapper.readValue(in, FeatureYamlRoot.class);
-
-            cache = root.getFeatures().stream()
-                    .collect(Collectors.toMap(
-                            FeatureYaml::getName,
-                            fy -> new FeatureDefinition(
-                                    fy.getName(),
-                                    fy.getEnabled(),
-                                    fy.getFilters().stream()
-                                            .map(f -> new FilterConfig(f.getName(), f.getParameters()))
-                                            .collect(Collectors.toList())
-                            )
-                    ));
+            Map<String, FeatureDefinition> current = getAllFeatures();
+            Map<String, FeatureDefinition> features = parse(in, current);
+            if (!features.equals(current)) {
+                publish(features); // an unchanged resource keeps the snapshot, and the compiled plans
+            }
+            failed = false;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to load features from YAML", e);
+        } finally {
+            reportRefresh(System.nanoTime() - start, failed);
         }
     }
 
-    // DTOs for YAML parsing
-    public static class FeatureYamlRoot {
-        private List<FeatureYaml> features;
-
-        public List<FeatureYaml> getFeatures() {
-            return features != null ? features : new ArrayList<>();
+    /**
+     * Parses a feature YAML document into definitions keyed by feature name.
+     * Invalid entries are reported and skipped (see {@link YamlFeatureLoader});
+     * a named feature whose entry is invalid keeps its definition from
+     * {@code previous}, so a broken edit does not remove the flag.
+     */
+    static Map<String, FeatureDefinition> parse(InputStream in, Map<String, FeatureDefinition> previous)
+            throws IOException {
+        YamlFeatureLoader.LoadResult result = LOADER.load(in);
+        for (String error : result.getErrors()) {
+            System.err.println("Skipping invalid feature: " + error);
         }
-
-        public void setFeatures(List<FeatureYaml> features) {
-            this.features = features;
-        }
-    }
-
-    public static class FeatureYaml {
-        private String name;
-        private boolean enabled;
-        private List<FilterYaml> filters;
-
-        public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
-
-        public boolean getEnabled() { return enabled; }
-        public void setEnabled(boolean enabled) { this.enabled = enabled; }
-
-        public List<FilterYaml> getFilters() {
-            return filters != null ? filters : new ArrayList<>();
-        }
-        public void setFilters(List<FilterYaml> filters) {
-            this.filters = filters;
+        Map<String, FeatureDefinition> features = result.getFeatures();
+        for (String name : result.getFailedNames()) {
+            FeatureDefinition kept = previous.get(name);
+            if (kept != null && !features.containsKey(name)) {
+                if (features == result.getFeatures()) {
+                    features = new HashMap<>(features);
+                }
+                features.put(name, kept);
+                System.err.println("Keeping the previous definition of feature " + name);
+            }
         }
+        return features;
     }
-
-    public static class FilterYaml {
-        private String name;
-        private Map<String, Object> parameters = new HashMap<>();
-
-        public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
-
-        @JsonProperty("parameters")
-        public Map<String, Object> getParameters() { return parameters; }
-        public void setParameters(Map<String, Object> parameters) { this.parameters = parameters; }
-    }
-
-    public void addFeature(FeatureDefinition def) {
-        cache.put(def.getName(), def);
-    }    
-
 }
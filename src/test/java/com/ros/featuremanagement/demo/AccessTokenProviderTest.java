@@ -0,0 +1,118 @@
+package com.ros.featuremanagement.demo;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.ros.featuremanagement.featuremanager.impl.AccessTokenProvider;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenProviderTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private TokenCredential fakeCredential(Duration lifetime) {
+        return ctx -> Mono.fromCallable(() -> new AccessToken(
+                "token-" + requests.incrementAndGet(), OffsetDateTime.now().plus(lifetime)));
+    }
+
+    @Test
+    void testTokenIsCachedUntilNearExpiry() {
+        AccessTokenProvider provider = new AccessTokenProvider(fakeCredential(Duration.ofHours(1)));
+
+        assertEquals("Bearer token-1", provider.getAuthorizationHeader());
+        assertEquals("Bearer token-1", provider.getAuthorizationHeader());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void testExpiredTokenIsReplaced() {
+        AccessTokenProvider provider = new AccessTokenProvider(fakeCredential(Duration.ofSeconds(10)),
+                AccessTokenProvider.APP_CONFIG_SCOPE, Duration.ofSeconds(20), Duration.ofSeconds(30));
+
+        assertEquals("token-1", provider.getToken().getToken());
+        // within the expiry skew, so the caller must wait for a fresh token
+        assertEquals("token-2", provider.getToken().getToken());
+    }
+
+    @Test
+    void testTokenInRefreshWindowIsRefreshedInBackground() throws Exception {
+        AccessTokenProvider provider = new AccessTokenProvider(fakeCredential(Duration.ofMinutes(2)),
+                AccessTokenProvider.APP_CONFIG_SCOPE, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+        assertEquals("token-1", provider.getToken().getToken());
+        // still valid: the current token is returned while a refresh starts
+        assertEquals("token-1", provider.getToken().getToken());
+
+        for (int i = 0; i < 100 && requests.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("token-2", provider.getToken().getToken());
+    }
+
+    @Test
+    void testBackgroundRefreshDoesNotBlockTheCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TokenCredential blocking = ctx -> Mono.fromCallable(() -> {
+            if (requests.get() > 0) {
+                release.await(); // a credential that blocks when subscribed to
+            }
+            return new AccessToken("token-" + requests.incrementAndGet(), OffsetDateTime.now().plusMinutes(2));
+        });
+        AccessTokenProvider provider = new AccessTokenProvider(blocking,
+                AccessTokenProvider.APP_CONFIG_SCOPE, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        assertEquals("token-1", provider.getToken().getToken());
+
+        CompletableFuture<String> cached = CompletableFuture.supplyAsync(() -> provider.getToken().getToken());
+        try {
+            assertEquals("token-1", cached.get(1, TimeUnit.SECONDS), "the cached token should be returned at once");
+        } finally {
+            release.countDown();
+        }
+        for (int i = 0; i < 100 && requests.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testConcurrentCallersShareOneRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TokenCredential slow = ctx -> Mono.fromCallable(() -> {
+            release.await();
+            return new AccessToken("token-" + requests.incrementAndGet(), OffsetDateTime.now().plusHours(1));
+        }).subscribeOn(Schedulers.boundedElastic());
+        AccessTokenProvider provider = new AccessTokenProvider(slow);
+
+        List<Thread> callers = new ArrayList<>();
+        List<String> tokens = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> tokens.add(provider.getToken().getToken()));
+            t.start();
+            callers.add(t);
+        }
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread t : callers) {
+            t.join();
+        }
+
+        assertEquals(1, requests.get());
+        assertEquals(8, tokens.size());
+        assertTrue(tokens.stream().allMatch("token-1"::equals));
+    }
+}
@@ -0,0 +1,314 @@
+package com.ros.featuremanagement.demo;
+
+import com.azure.core.credential.AccessToken;
+import com.ros.featuremanagement.featuremanager.impl.AzureAppConfigFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.FeatureAppConfigProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Azure App Configuration repository against a local stub server.
+ */
+class AzureAppConfigFetchTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> revisions = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger listRequests = new AtomicInteger();
+    private volatile int listedKeys = 250;
+    private String cacheFile;
+    private String label = "dev";
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newFixedThreadPool(32);
+        server.setExecutor(executor);
+        server.createContext("/kv/", this::handleKey);
+        server.createContext("/kv", this::handleList);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleKey(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(20);
+            String key = exchange.getRequestURI().getPath().substring("/kv/".length());
+            if (failing.contains(key)) {
+                send(exchange, 500, "{}");
+                return;
+            }
+            int revision = revisions.getOrDefault(key, 0);
+            String etag = "\"" + key + "-" + revision + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            String name = key.substring(key.indexOf(':') + 1);
+            String yaml = "name: " + name + "\\nenabled: " + (revision % 2 == 0)
+                    + "\\nfilters:\\n  - name: AlwaysOn\\n";
+            exchange.getResponseHeaders().set("ETag", etag);
+            send(exchange, 200, "{\"key\":\"" + key + "\",\"value\":\"" + yaml + "\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /** Paged list endpoint: 100 items per page, continued through @nextLink. */
+    private void handleList(HttpExchange exchange) throws IOException {
+        listRequests.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        int after = 0;
+        for (String param : query.split("&")) {
+            if (param.startsWith("after=")) {
+                after = Integer.parseInt(param.substring("after=".length()));
+            }
+        }
+        int end = Math.min(listedKeys, after + 100);
+
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        for (int i = after; i < end; i++) {
+            String key = "Feature:F" + i;
+            int revision = revisions.getOrDefault(key, 0);
+            if (i > after) {
+                body.append(',');
+            }
+            body.append("{\"etag\":\"").append(key).append('-').append(revision)
+                    .append("\",\"key\":\"").append(key)
+                    .append("\",\"label\":\"dev\",\"tags\":{\"owner\":\"team\"}");
+            if (failing.contains(key)) {
+                body.append(",\"value\":\"name: [F").append(i).append("\"}");
+                continue;
+            }
+            body.append(",\"value\":\"name: F").append(i).append("\\nenabled: ").append(revision % 2 == 0)
+                    .append("\\nfilters:\\n  - name: AlwaysOn\\n\"}");
+        }
+        body.append(']');
+        if (end < listedKeys) {
+            body.append(",\"@nextLink\":\"/kv?key=Feature%3A*&label=dev&api-version=1.0&after=").append(end).append('"');
+        }
+        body.append('}');
+        send(exchange, 200, body.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private AzureAppConfigFeatureRepository repository(List<String> keys, int maxConcurrency) {
+        return repository(keys, null, maxConcurrency);
+    }
+
+    private AzureAppConfigFeatureRepository repository(List<String> keys, String keyFilter, int maxConcurrency) {
+        FeatureAppConfigProperties props = new FeatureAppConfigProperties();
+        props.setKeyFilter(keyFilter);
+        props.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort());
+        props.setLabel(label);
+        props.setKeys(keys);
+        props.setMaxConcurrency(maxConcurrency);
+        props.setRequestTimeout(Duration.ofSeconds(5));
+        props.setCacheFile(cacheFile);
+        return new AzureAppConfigFeatureRepository(props,
+                ctx -> Mono.just(new AccessToken("test", OffsetDateTime.now().plusHours(1))));
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add("Feature:F" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    void testRefreshFetchesAllKeysWithinConcurrencyLimit() {
+        AzureAppConfigFeatureRepository repo = repository(keys(40), 8);
+
+        repo.refresh();
+
+        assertEquals(40, repo.getAllFeatures().size());
+        assertEquals("F7", repo.getFeature("Feature:F7").getName());
+        assertTrue(maxInFlight.get() > 1, "keys should be fetched concurrently");
+        assertTrue(maxInFlight.get() <= 8, "in-flight requests exceeded the limit: " + maxInFlight.get());
+    }
+
+    @Test
+    void testFailedKeyKeepsLastGoodDefinition() {
+        AzureAppConfigFeatureRepository repo = repository(keys(5), 4);
+        repo.refresh();
+        long version = repo.getSnapshot().getVersion();
+
+        failing.add("Feature:F3");
+        repo.refresh();
+
+        assertEquals(version, repo.getSnapshot().getVersion(), "nothing changed, so no new snapshot");
+        assertEquals(5, repo.getAllFeatures().size());
+        assertNotNull(repo.getFeature("Feature:F3"));
+    }
+
+    @Test
+    void testUnchangedRefreshReusesDefinitionsAndSnapshot() {
+        AzureAppConfigFeatureRepository repo = repository(keys(10), 4);
+        repo.refresh();
+        var before = repo.getSnapshot();
+
+        repo.refresh();
+
+        assertEquals(10, notModified.get(), "every key should be answered with 304");
+        assertSame(before, repo.getSnapshot(), "no changes should publish no new snapshot");
+    }
+
+    @Test
+    void testChangedKeyIsTheOnlyRebuiltEntry() {
+        AzureAppConfigFeatureRepository repo = repository(keys(10), 4);
+        repo.refresh();
+        var before = repo.getSnapshot();
+
+        revisions.put("Feature:F2", 1);
+        repo.refresh();
+        var after = repo.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertFalse(after.getFeature("Feature:F2").getEnabled());
+        assertNotSame(before.getFeature("Feature:F2"), after.getFeature("Feature:F2"));
+        assertSame(before.getFeature("Feature:F5"), after.getFeature("Feature:F5"));
+    }
+
+    @Test
+    void testKeyFilterLoadsAllPages() {
+        AzureAppConfigFeatureRepository repo = repository(null, "Feature:*", 4);
+
+        repo.refresh();
+
+        assertEquals(3, listRequests.get(), "250 keys should load in three pages");
+        assertEquals(250, repo.getAllFeatures().size());
+        assertEquals("F249", repo.getFeature("Feature:F249").getName());
+    }
+
+    @Test
+    void testKeyFilterReusesUnchangedItemsAndDropsRemovedKeys() {
+        AzureAppConfigFeatureRepository repo = repository(null, "Feature:*", 4);
+        repo.refresh();
+        var before = repo.getSnapshot();
+
+        repo.refresh();
+        assertSame(before, repo.getSnapshot(), "unchanged listing should publish no new snapshot");
+
+        revisions.put("Feature:F10", 1);
+        listedKeys = 200;
+        repo.refresh();
+        var after = repo.getSnapshot();
+
+        assertEquals(200, after.size());
+        assertNull(after.getFeature("Feature:F220"));
+        assertFalse(after.getFeature("Feature:F10").getEnabled());
+        assertSame(before.getFeature("Feature:F11"), after.getFeature("Feature:F11"));
+    }
+
+    @Test
+    void testKeyFilterItemThatFailsToParseIsAFailedRefresh() {
+        AzureAppConfigFeatureRepository repo = repository(null, "Feature:*", 4);
+        List<Boolean> outcomes = new ArrayList<>();
+        repo.addRefreshListener((nanos, failed) -> outcomes.add(failed));
+        repo.refresh();
+
+        failing.add("Feature:F7");
+        revisions.put("Feature:F7", 1);
+        repo.refresh();
+
+        assertEquals(List.of(false, true), outcomes);
+        assertTrue(repo.getFeature("Feature:F7").getEnabled(), "the last good definition should be kept");
+    }
+
+    @Test
+    void testCacheFileServesFeaturesBeforeFirstFetch() {
+        cacheFile = dir.resolve("features.cache").toString();
+        AzureAppConfigFeatureRepository first = repository(keys(10), 4);
+        first.refresh();
+        assertTrue(Files.exists(Path.of(cacheFile)), "successful refresh should write the cache");
+
+        // a new node with the backend unreachable still starts with the cached flags
+        keys(10).forEach(failing::add);
+        AzureAppConfigFeatureRepository second = repository(keys(10), 4);
+        assertEquals(10, second.getAllFeatures().size());
+        assertTrue(second.getFeature("Feature:F4").getEnabled());
+
+        second.refresh();
+        assertEquals(10, second.getAllFeatures().size(), "failed fetches keep the cached definitions");
+    }
+
+    @Test
+    void testCachedEtagsAreRevalidated() {
+        cacheFile = dir.resolve("features.cache").toString();
+        repository(keys(10), 4).refresh();
+
+        AzureAppConfigFeatureRepository repo = repository(keys(10), 4);
+        var cached = repo.getSnapshot();
+        repo.refresh();
+
+        assertEquals(10, notModified.get(), "cached keys should be revalidated with If-None-Match");
+        assertSame(cached, repo.getSnapshot());
+    }
+
+    @Test
+    void testCacheForAnotherConfigurationIsIgnored() {
+        cacheFile = dir.resolve("features.cache").toString();
+        repository(keys(10), 4).refresh();
+        keys(10).forEach(failing::add);
+
+        label = "prod";
+        assertTrue(repository(keys(10), 4).getAllFeatures().isEmpty(), "flags of another label must not be served");
+
+        label = "dev";
+        assertEquals(List.of("Feature:F1"), List.copyOf(repository(List.of("Feature:F1"), 4).getAllFeatures().keySet()),
+                "only configured keys are taken from the cache");
+    }
+}
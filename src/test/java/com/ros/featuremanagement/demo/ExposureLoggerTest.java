@@ -0,0 +1,130 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.ExposureEvent;
+import com.ros.featuremanagement.featuremanager.ExposureLogger;
+import com.ros.featuremanagement.featuremanager.ExposureSink;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.RollingFileExposureSink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExposureLoggerTest {
+
+    @TempDir
+    Path dir;
+
+    /** Collects written events; optionally blocks until released. */
+    static class CollectingSink implements ExposureSink {
+        final List<ExposureEvent> events = new ArrayList<>();
+        final CountDownLatch release;
+
+        CollectingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void write(List<ExposureEvent> batch) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.addAll(batch);
+        }
+    }
+
+    @Test
+    void testExposuresAreDeduplicatedAndWritten() throws IOException {
+        CollectingSink sink = new CollectingSink(new CountDownLatch(0));
+        FeatureManager fm = new FeatureManager(new InMemoryFeatureRepository());
+        ExposureLogger logger = new ExposureLogger(sink, 1024, 100, Duration.ofMillis(10), Duration.ofMinutes(10)).start();
+        fm.setExposureLogger(logger);
+
+        FeatureContext alice = new FeatureContext("alice", List.of("admin"), List.of());
+        FeatureContext bob = new FeatureContext("bob", List.of(), List.of());
+        for (int i = 0; i < 50; i++) {
+            fm.isEnabled("AlwaysOnFeature", alice);
+            fm.isEnabled("AlwaysOnFeature", bob);
+            fm.isEnabled("AdminFeature", alice);
+        }
+        logger.close();
+
+        assertEquals(3, logger.getWritten(), "each (user, flag, value) should be logged once per window");
+        assertEquals(147, logger.getDeduplicated());
+        assertEquals(3, sink.events.size());
+        assertEquals("alice", sink.events.get(0).getUserId());
+        assertTrue(sink.events.get(0).isEnabled());
+    }
+
+    @Test
+    void testFullBufferDropsWithoutBlocking() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSink sink = new CollectingSink(release);
+        ExposureLogger logger = new ExposureLogger(sink, 16, 4, Duration.ofMillis(1), Duration.ZERO).start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            logger.log("Flag", new FeatureContext("user" + i, List.of(), List.of()), true, 1);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "logging must not block on a slow sink");
+        assertTrue(logger.getDropped() > 0, "a full buffer should drop exposures");
+
+        release.countDown();
+        logger.close();
+        assertEquals(1000, logger.getPublished() + logger.getDropped());
+        assertEquals(logger.getPublished(), logger.getWritten());
+    }
+
+    @Test
+    void testExposuresLoggedBeforeStartAreWrittenOnClose() throws IOException {
+        CollectingSink sink = new CollectingSink(new CountDownLatch(0));
+        ExposureLogger logger = new ExposureLogger(sink, 16, 4, Duration.ofMillis(1), Duration.ZERO);
+
+        for (int i = 0; i < 10; i++) {
+            logger.log("Flag", new FeatureContext("user" + i, List.of(), List.of()), true, 1);
+        }
+        logger.close();
+
+        assertEquals(10, sink.events.size());
+        assertEquals(10, logger.getWritten());
+    }
+
+    @Test
+    void testRollingFileSinkStartsNewFiles() throws IOException {
+        RollingFileExposureSink sink = new RollingFileExposureSink(dir, "exposures", 200);
+        List<ExposureEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(new ExposureEvent(1_700_000_000_000L, "Flag", "user" + i, i % 2 == 0, 3));
+        }
+        sink.write(batch);
+        sink.close();
+
+        List<String> lines = new ArrayList<>();
+        long files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            List<Path> paths = listing.sorted().toList();
+            files = paths.size();
+            for (Path path : paths) {
+                lines.addAll(Files.readAllLines(path));
+            }
+        }
+        assertTrue(files > 1, "files should roll over at the size limit");
+        assertEquals(10, lines.size());
+        assertTrue(lines.get(0).contains("\"feature\":\"Flag\""));
+    }
+}
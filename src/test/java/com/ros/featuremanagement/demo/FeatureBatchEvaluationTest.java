@@ -0,0 +1,81 @@
+package com.ros.featuremanagement.demo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ros.featuremanagement.featuremanager.FeatureBatch;
+import com.ros.featuremanagement.featuremanager.FeatureBatchRequest;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureController;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureStreamRegistry;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureBatchEvaluationTest {
+
+    private FeatureManager fm;
+
+    @BeforeEach
+    void setUp() {
+        fm = new FeatureManager(new InMemoryFeatureRepository());
+    }
+
+    private static FeatureBatchRequest.Context context(String userId, String... roles) {
+        FeatureBatchRequest.Context ctx = new FeatureBatchRequest.Context();
+        ctx.setUserId(userId);
+        ctx.setRoles(List.of(roles));
+        return ctx;
+    }
+
+    @Test
+    void testBatchMatchesSingleEvaluation() {
+        FeatureBatch batch = fm.batch(List.of("AdminFeature", "AlwaysOnFeature", "Unknown"));
+        FeatureContext admin = new FeatureContext("a", List.of("admin"), List.of());
+
+        boolean[] values = batch.evaluate(admin);
+        assertEquals(3, values.length);
+        assertEquals(fm.isEnabled("AdminFeature", admin), values[0]);
+        assertTrue(values[1]);
+        assertFalse(values[2], "Unknown features should evaluate to false");
+    }
+
+    @Test
+    void testBatchWithoutSubsetEvaluatesAllFeatures() {
+        FeatureContext ctx = new FeatureContext("a", List.of(), List.of());
+        FeatureBatch batch = fm.batch(null);
+        boolean[] values = batch.evaluate(ctx);
+
+        assertEquals(fm.evaluateAll(ctx).size(), batch.getNames().size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(fm.isEnabled(batch.getNames().get(i), ctx), values[i]);
+        }
+    }
+
+    @Test
+    void testEndpointStreamsPositionalResults() throws IOException {
+        FeatureBatchRequest request = new FeatureBatchRequest();
+        request.setFeatures(List.of("AlwaysOnFeature", "DisabledFeature"));
+        request.setContexts(List.of(context("a", "admin"), context("b")));
+
+        try (FeatureStreamRegistry streams = new FeatureStreamRegistry(fm, Duration.ofMinutes(1))) {
+            FeatureController controller = new FeatureController(fm, streams);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            controller.evaluateBatch(request).getBody().writeTo(out);
+
+            JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+            assertEquals("AlwaysOnFeature", json.get("features").get(0).asText());
+            assertEquals(2, json.get("results").size());
+            assertTrue(json.get("results").get(1).get(0).asBoolean());
+            assertFalse(json.get("results").get(1).get(1).asBoolean());
+        }
+    }
+}
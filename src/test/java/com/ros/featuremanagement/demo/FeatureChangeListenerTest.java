@@ -0,0 +1,73 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshotDiff;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureChangeListenerTest {
+
+    private static FeatureDefinition feature(String name, boolean enabled) {
+        return new FeatureDefinition(name, enabled, List.of(new FilterConfig("AlwaysOn", Map.of())));
+    }
+
+    @Test
+    void testDiffReportsAddedRemovedAndModified() {
+        FeatureSnapshot before = new FeatureSnapshot(1, Map.of(
+                "Kept", feature("Kept", true),
+                "Changed", feature("Changed", true),
+                "Gone", feature("Gone", true)));
+        FeatureSnapshot after = new FeatureSnapshot(2, Map.of(
+                "Kept", feature("Kept", true),
+                "Changed", feature("Changed", false),
+                "New", feature("New", true)));
+
+        FeatureSnapshotDiff diff = FeatureSnapshotDiff.between(before, after);
+
+        assertEquals(Set.of("New"), diff.getAdded());
+        assertEquals(Set.of("Gone"), diff.getRemoved());
+        assertEquals(Set.of("Changed"), diff.getModified(), "equal definitions should not count as modified");
+        assertEquals(1, diff.getPreviousVersion());
+        assertEquals(2, diff.getVersion());
+    }
+
+    @Test
+    void testListenerIsNotifiedOffTheRefreshThread() throws InterruptedException {
+        InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
+        FeatureManager fm = new FeatureManager(repo);
+        FeatureContext ctx = new FeatureContext("user", List.of(), List.of());
+        fm.isEnabled("AlwaysOnFeature", ctx);
+
+        BlockingQueue<FeatureSnapshotDiff> diffs = new LinkedBlockingQueue<>();
+        BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+        fm.addChangeListener(diff -> {
+            threads.add(Thread.currentThread());
+            diffs.add(diff);
+        });
+
+        repo.addFeature(feature("Added", true));
+        fm.refreshFeatures();
+
+        FeatureSnapshotDiff diff = diffs.poll(5, TimeUnit.SECONDS);
+        assertNotNull(diff, "listener should be notified");
+        assertEquals(Set.of("Added"), diff.getChanged());
+        assertNotSame(Thread.currentThread(), threads.poll());
+
+        fm.refreshFeatures();
+        assertNull(diffs.poll(200, TimeUnit.MILLISECONDS), "no change should not be reported");
+    }
+}
@@ -0,0 +1,172 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.ExposureEvent;
+import com.ros.featuremanagement.featuremanager.ExposureLogger;
+import com.ros.featuremanagement.featuremanager.FeatureBatchRequest;
+import com.ros.featuremanagement.featuremanager.FeatureController;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureStreamRegistry;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FeatureControllerTest {
+
+    private InMemoryFeatureRepository repo;
+    private final List<FeatureStreamRegistry> registries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        repo.addFeature(new FeatureDefinition("Beta", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "beta")))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registries.forEach(FeatureStreamRegistry::close);
+    }
+
+    private MockMvc controller(FeatureManager fm) {
+        FeatureStreamRegistry streams = new FeatureStreamRegistry(fm, Duration.ofMinutes(1));
+        registries.add(streams);
+        return MockMvcBuilders.standaloneSetup(new FeatureController(fm, streams)).build();
+    }
+
+    private String fetchEtag(MockMvc mvc) throws Exception {
+        String etag = mvc.perform(get("/features").header("X-User-Id", "alice").header("X-Roles", "beta"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        return etag;
+    }
+
+    @Test
+    void testMatchingIfNoneMatchIsAnsweredWithNotModified() throws Exception {
+        MockMvc mvc = controller(new FeatureManager(repo));
+        String etag = fetchEtag(mvc);
+
+        mvc.perform(get("/features").header("X-User-Id", "alice").header("X-Roles", "beta")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/features").header("X-User-Id", "bob").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        repo.addFeature(new FeatureDefinition("Other", true, List.of(new FilterConfig("AlwaysOn", Map.of()))));
+        mvc.perform(get("/features").header("X-User-Id", "alice").header("X-Roles", "beta")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testTagFromAnotherManagerIsNotMatched() throws Exception {
+        String etag = fetchEtag(controller(new FeatureManager(repo)));
+
+        // same snapshot version, as on another replica or after a restart
+        MockMvc replica = controller(new FeatureManager(repo));
+        replica.perform(get("/features").header("X-User-Id", "alice").header("X-Roles", "beta")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testNonCacheableFilterIsNotAnsweredWithNotModified() throws Exception {
+        AtomicBoolean open = new AtomicBoolean(true);
+        repo.addFeature(new FeatureDefinition("Switch", true, List.of(new FilterConfig("Switch", Map.of()))));
+        MockMvc mvc = controller(new FeatureManager(repo, Map.of("Switch", (ctx, params) -> open.get()),
+                (ctx, params) -> false));
+
+        MockHttpServletResponse first = mvc.perform(get("/features").header("X-User-Id", "alice"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertNull(first.getHeader("ETag"), "a non-cacheable result has no entity tag");
+        assertTrue(first.getContentAsString().contains("\"Switch\":true"));
+
+        open.set(false);
+        String second = mvc.perform(get("/features").header("X-User-Id", "alice")
+                        .header("If-None-Match", "*"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(second.contains("\"Switch\":false"), "the filter is evaluated again");
+    }
+
+    @Test
+    void testReturnedValuesAreLoggedAsExposures() throws Exception {
+        List<ExposureEvent> events = new ArrayList<>();
+        ExposureLogger logger = new ExposureLogger(batch -> events.addAll(batch), 1024, 100,
+                Duration.ofMillis(10), Duration.ofMinutes(10));
+        FeatureManager fm = new FeatureManager(repo);
+        fm.setExposureLogger(logger);
+
+        fetchEtag(controller(fm));
+        logger.close();
+
+        assertEquals(repo.getAllFeatures().size(), events.size(), "every returned value is an exposure");
+        ExposureEvent beta = events.stream().filter(e -> e.getFeatureName().equals("Beta")).findFirst().orElseThrow();
+        assertTrue(beta.isEnabled());
+        assertEquals("alice", beta.getUserId());
+        assertEquals(ExposureEvent.Source.ALL_FEATURES, beta.getSource());
+    }
+
+    @Test
+    void testBatchResultsAreLoggedAsExposures() throws Exception {
+        List<ExposureEvent> events = new ArrayList<>();
+        ExposureLogger logger = new ExposureLogger(batch -> events.addAll(batch), 1024, 100,
+                Duration.ofMillis(10), Duration.ofMinutes(10));
+        FeatureManager fm = new FeatureManager(repo);
+        fm.setExposureLogger(logger);
+        FeatureBatchRequest.Context alice = new FeatureBatchRequest.Context();
+        alice.setUserId("alice");
+        alice.setRoles(List.of("beta"));
+        FeatureBatchRequest request = new FeatureBatchRequest();
+        request.setFeatures(List.of("Beta"));
+        request.setContexts(List.of(alice));
+
+        FeatureStreamRegistry streams = new FeatureStreamRegistry(fm, Duration.ofMinutes(1));
+        registries.add(streams);
+        new FeatureController(fm, streams).evaluateBatch(request).getBody().writeTo(new ByteArrayOutputStream());
+        logger.close();
+
+        assertEquals(1, events.size());
+        assertEquals("Beta", events.get(0).getFeatureName());
+        assertEquals("alice", events.get(0).getUserId());
+        assertTrue(events.get(0).isEnabled());
+        assertEquals(ExposureEvent.Source.BATCH, events.get(0).getSource());
+    }
+
+    @Test
+    void testBatchWithMissingFeatureNameIsBadRequest() throws Exception {
+        MockMvc mvc = controller(new FeatureManager(repo));
+        String contexts = "\"contexts\":[{\"userId\":\"alice\"}]";
+
+        mvc.perform(post("/features/evaluate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"features\":[\"Beta\",null]," + contexts + "}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/features/evaluate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"features\":[\" \"]," + contexts + "}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/features/evaluate").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"features\":[\"Beta\"]," + contexts + "}"))
+                .andExpect(status().isOk());
+    }
+}
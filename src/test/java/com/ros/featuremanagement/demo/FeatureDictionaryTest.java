@@ -0,0 +1,59 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureDictionary;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureDictionaryTest {
+
+    @Test
+    void testInternIsStable() {
+        FeatureDictionary dictionary = FeatureDictionary.global();
+        int id = dictionary.intern("dictionary-test-role");
+
+        assertEquals(id, dictionary.intern("dictionary-test-role"));
+        assertEquals(id, dictionary.lookup("dictionary-test-role"));
+        assertEquals(-1, dictionary.lookup("dictionary-test-never-interned"));
+    }
+
+    @Test
+    void testContextWithManyRolesMatchesGroups() {
+        InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
+        FeatureManager fm = new FeatureManager(repo);
+        repo.addFeature(new FeatureDefinition("GroupFeature", true,
+                List.of(new FilterConfig("Targeting", Map.of("groups", List.of("ops", "role-42"))))));
+
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            roles.add("role-" + i);
+        }
+
+        assertTrue(fm.isEnabled("GroupFeature", new FeatureContext("admin", roles, List.of())));
+        assertFalse(fm.isEnabled("GroupFeature", new FeatureContext("admin", roles.subList(0, 40), List.of())));
+    }
+
+    @Test
+    void testContextSeesRolesInternedAfterFirstUse() {
+        InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
+        FeatureManager fm = new FeatureManager(repo);
+        FeatureContext ctx = new FeatureContext("u1", List.of("late-bound-role"), List.of());
+
+        // encode the context's roles before the role is known to the dictionary
+        assertFalse(fm.isEnabled("AdminFeature", ctx));
+
+        repo.addFeature(new FeatureDefinition("LateFeature", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "late-bound-role")))));
+        assertTrue(fm.isEnabled("LateFeature", ctx));
+    }
+}
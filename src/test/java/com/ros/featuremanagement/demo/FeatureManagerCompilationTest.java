@@ -0,0 +1,136 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureManagerCompilationTest {
+
+    /** Fallback for the repository's seed features; a constant, so their results stay cacheable. */
+    private static final FeatureFilter MISSING = new FeatureFilter() {
+        @Override
+        public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+            return false;
+        }
+
+        @Override
+        public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+            return BoundFilter.NEVER;
+        }
+    };
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+    private AtomicInteger binds;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        binds = new AtomicInteger();
+
+        FeatureFilter counting = new FeatureFilter() {
+            @Override
+            public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+                return bind(null, parameters).evaluate(context);
+            }
+
+            @Override
+            public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+                binds.incrementAndGet();
+                String user = (String) parameters.get("user");
+                return ctx -> user.equals(ctx.getUserId());
+            }
+        };
+        fm = new FeatureManager(repo, Map.of("User", counting), MISSING);
+    }
+
+    @Test
+    void testFilterIsBoundOnce() {
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "alice")))));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(fm.isEnabled("Compiled", new FeatureContext("alice", List.of(), List.of())));
+            assertFalse(fm.isEnabled("Compiled", new FeatureContext("bob", List.of(), List.of())));
+        }
+        assertEquals(1, binds.get(), "Filter should be bound once, not per evaluation");
+    }
+
+    @Test
+    void testUnchangedDefinitionIsNotRecompiledOnRefresh() {
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "alice")))));
+        fm.refreshFeatures();
+
+        // equal, but a new instance - as a reloading repository would produce
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "alice")))));
+        fm.refreshFeatures();
+
+        assertTrue(fm.isEnabled("Compiled", new FeatureContext("alice", List.of(), List.of())));
+        assertEquals(1, binds.get(), "Equal definition should reuse the compiled plan");
+    }
+
+    @Test
+    void testChangedDefinitionIsRecompiled() {
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "alice")))));
+        assertTrue(fm.isEnabled("Compiled", new FeatureContext("alice", List.of(), List.of())));
+
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "bob")))));
+        assertFalse(fm.isEnabled("Compiled", new FeatureContext("alice", List.of(), List.of())));
+        assertTrue(fm.isEnabled("Compiled", new FeatureContext("bob", List.of(), List.of())));
+        assertEquals(2, binds.get());
+    }
+
+    @Test
+    void testMalformedParametersEvaluateToFalse() {
+        FeatureManager defaults = new FeatureManager(repo);
+        repo.addFeature(new FeatureDefinition("BadPercentage", true,
+                List.of(new FilterConfig("Percentage", Map.of("percentage", "lots")))));
+
+        assertFalse(defaults.isEnabled("BadPercentage", new FeatureContext("alice", List.of(), List.of())));
+    }
+
+    @Test
+    void testEvaluationTagTracksSnapshotAndContext() {
+        FeatureContext alice = new FeatureContext("alice", List.of("a", "b"), List.of());
+        String tag = fm.getEvaluationTag(alice);
+
+        assertEquals(tag, fm.getEvaluationTag(new FeatureContext("alice", List.of("b", "a"), List.of())),
+                "Equivalent contexts should share a tag");
+        assertNotEquals(tag, fm.getEvaluationTag(new FeatureContext("bob", List.of("a", "b"), List.of())));
+
+        repo.addFeature(new FeatureDefinition("Compiled", true,
+                List.of(new FilterConfig("User", Map.of("user", "alice")))));
+        assertNotEquals(tag, fm.getEvaluationTag(alice), "A new snapshot should change the tag");
+    }
+
+    @Test
+    void testEvaluationTagIncludesNextTimeBoundary() {
+        FeatureManager defaults = new FeatureManager(repo);
+        FeatureContext ctx = new FeatureContext("alice", List.of(), List.of());
+        String untimed = defaults.getEvaluationTag(ctx);
+
+        repo.addFeature(new FeatureDefinition("Window", true,
+                List.of(new FilterConfig("TimeBased", Map.of("start", "2999-01-01T00:00:00")))));
+        String timed = defaults.getEvaluationTag(ctx);
+        assertEquals(untimed.split("-").length + 1, timed.split("-").length,
+                "A pending time boundary should be part of the tag");
+        assertEquals(timed, defaults.getEvaluationTag(ctx));
+    }
+}
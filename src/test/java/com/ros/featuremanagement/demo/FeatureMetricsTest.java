@@ -0,0 +1,144 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureMetrics;
+import com.ros.featuremanagement.featuremanager.FeatureRepository;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.impl.FileYamlFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureMetricsTest {
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        fm = new FeatureManager(repo);
+    }
+
+    @Test
+    void testEvaluationsAreCountedPerFlag() {
+        FeatureContext admin = new FeatureContext("a", List.of("admin"), List.of());
+        FeatureContext user = new FeatureContext("u", List.of("user"), List.of());
+        for (int i = 0; i < 3; i++) {
+            fm.isEnabled("AdminFeature", admin);
+        }
+        fm.isEnabled("AdminFeature", user);
+        fm.evaluateAll(user);
+
+        FeatureMetrics.FlagStats stats = fm.getMetrics().getFlagStats("AdminFeature");
+        assertEquals(3, stats.getTrueCount());
+        assertEquals(2, stats.getFalseCount());
+        assertEquals(0.6, stats.getTrueRatio(), 1e-9);
+        assertEquals(1, fm.getMetrics().getFlagStats("AlwaysOnFeature").getTrueCount());
+    }
+
+    @Test
+    void testFilterLatencyIsSampled() {
+        FeatureContext ctx = new FeatureContext("u", List.of(), List.of());
+        for (int i = 0; i < 20_000; i++) {
+            fm.isEnabled("AlwaysOnFeature", ctx);
+        }
+        FeatureMetrics.FilterStats latency = fm.getMetrics().getFilterStats("AlwaysOn");
+        assertNotNull(latency);
+        assertTrue(latency.getSampleCount() > 0, "some evaluations should be timed");
+        assertTrue(latency.getSampleCount() < 20_000, "not every evaluation should be timed");
+        assertTrue(latency.getPercentileNanos(0.99) >= latency.getPercentileNanos(0.5));
+    }
+
+    @Test
+    void testRefreshDurationFailuresAndSizeAreRecorded() {
+        repo.addFeature(new FeatureDefinition("Temporary", true, List.of()));
+        fm.refreshFeatures();
+        assertNotNull(fm.getMetrics().getFlagStats("Temporary"));
+        assertEquals(1, fm.getMetrics().getRefreshCount());
+        assertEquals(repo.getAllFeatures().size(), fm.getMetrics().getSnapshotSize());
+
+        FeatureRepository failing = new InMemoryFeatureRepository() {
+            @Override
+            public void refresh() {
+                throw new IllegalStateException("backend down");
+            }
+        };
+        FeatureManager failingManager = new FeatureManager(failing);
+        assertThrows(IllegalStateException.class, failingManager::refreshFeatures);
+        assertEquals(1, failingManager.getMetrics().getRefreshFailures());
+    }
+
+    @Test
+    void testFailedReloadThatDoesNotThrowIsCounted(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("features.yaml");
+        Files.writeString(file, "features:\n  - name: FileFeature\n    enabled: true\n");
+        FileYamlFeatureRepository fileRepo = new FileYamlFeatureRepository(file);
+        FeatureManager fileManager = new FeatureManager(fileRepo);
+
+        fileManager.refreshFeatures();
+        assertEquals(1, fileManager.getMetrics().getRefreshCount());
+        assertEquals(0, fileManager.getMetrics().getRefreshFailures());
+
+        Files.writeString(file, "features: [ {");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        fileManager.refreshFeatures();
+        assertEquals(2, fileManager.getMetrics().getRefreshCount());
+        assertEquals(1, fileManager.getMetrics().getRefreshFailures(), "The repository kept its snapshot but the reload failed");
+        assertEquals(1, fileManager.getMetrics().getSnapshotSize());
+    }
+
+    @Test
+    void testReloadsStartedByTheRepositoryAreRecorded(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("features.yaml");
+        Files.writeString(file, "features:\n  - name: FileFeature\n    enabled: true\n");
+        FileYamlFeatureRepository fileRepo = new FileYamlFeatureRepository(file);
+        FeatureManager fileManager = new FeatureManager(fileRepo);
+
+        // as the file watcher does, without going through the manager
+        Files.writeString(file, "features: [ {");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        fileRepo.refresh();
+
+        assertEquals(1, fileManager.getMetrics().getRefreshCount());
+        assertEquals(1, fileManager.getMetrics().getRefreshFailures());
+        assertTrue(fileManager.getMetrics().getLastRefreshNanos() > 0);
+    }
+
+    @Test
+    void testStatsOfRemovedFeaturesAreDropped() {
+        FeatureRepository repository = new InMemoryFeatureRepository() {
+            private boolean trimmed;
+
+            @Override
+            public FeatureSnapshot getSnapshot() {
+                FeatureSnapshot snapshot = super.getSnapshot();
+                return trimmed ? new FeatureSnapshot(snapshot.getVersion() + 1, Map.of()) : snapshot;
+            }
+
+            @Override
+            public void refresh() {
+                trimmed = true;
+            }
+        };
+        FeatureManager manager = new FeatureManager(repository);
+        manager.isEnabled("AlwaysOnFeature", new FeatureContext("u", List.of(), List.of()));
+        assertNotNull(manager.getMetrics().getFlagStats("AlwaysOnFeature"));
+
+        manager.refreshFeatures();
+        assertNull(manager.getMetrics().getFlagStats("AlwaysOnFeature"));
+    }
+}
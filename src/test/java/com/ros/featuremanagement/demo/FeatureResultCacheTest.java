@@ -0,0 +1,168 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureResultCache;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureResultCacheTest {
+
+    /** Fallback for the repository's seed features; a constant, so their results stay cacheable. */
+    private static final FeatureFilter MISSING = new FeatureFilter() {
+        @Override
+        public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+            return false;
+        }
+
+        @Override
+        public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+            return BoundFilter.NEVER;
+        }
+    };
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+    private FeatureResultCache cache;
+    private AtomicInteger evaluations;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        evaluations = new AtomicInteger();
+        fm = new FeatureManager(repo, Map.of(
+                "Counting", new FeatureFilter() {
+                    @Override
+                    public boolean evaluate(FeatureContext ctx, Map<String, Object> params) {
+                        evaluations.incrementAndGet();
+                        return ctx.getRoles().contains("admin");
+                    }
+
+                    @Override
+                    public boolean isCacheable() {
+                        return true;
+                    }
+                }), MISSING);
+        cache = new FeatureResultCache(100, Duration.ofMinutes(5));
+        fm.setResultCache(cache);
+        repo.addFeature(new FeatureDefinition("Cached", true,
+                List.of(new FilterConfig("Counting", Map.of()))));
+    }
+
+    @Test
+    void testEquivalentContextsHitCache() {
+        assertTrue(fm.isEnabled("Cached", new FeatureContext("u1", List.of("admin", "qa"), List.of("p"))));
+        assertTrue(fm.isEnabled("Cached", new FeatureContext("u1", List.of("qa", "admin"), List.of("p"))));
+
+        assertEquals(1, evaluations.get(), "role order should not affect the cache key");
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void testDifferentContextsMissCache() {
+        fm.isEnabled("Cached", new FeatureContext("u1", List.of("admin"), List.of()));
+        fm.isEnabled("Cached", new FeatureContext("u1", List.of("admin"), List.of("p")));
+        fm.isEnabled("Cached", new FeatureContext("u2", List.of("admin"), List.of()));
+
+        assertEquals(3, evaluations.get());
+    }
+
+    @Test
+    void testNewSnapshotInvalidatesCache() {
+        FeatureContext ctx = new FeatureContext("u1", List.of("admin"), List.of());
+        assertTrue(fm.isEnabled("Cached", ctx));
+
+        repo.addFeature(new FeatureDefinition("Cached", false,
+                List.of(new FilterConfig("Counting", Map.of()))));
+
+        assertFalse(fm.isEnabled("Cached", ctx), "stale cached result must not survive a new snapshot");
+    }
+
+    @Test
+    void testEvaluateAllIsCached() {
+        FeatureContext ctx = new FeatureContext("u1", List.of("admin"), List.of());
+        Map<String, Boolean> first = fm.evaluateAll(ctx);
+        Map<String, Boolean> second = fm.evaluateAll(new FeatureContext("u1", List.of("admin"), List.of()));
+
+        assertSame(first, second);
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void testClosedTimeWindowIsCached() {
+        FeatureManager defaults = new FeatureManager(repo);
+        defaults.setResultCache(cache);
+        LocalDateTime now = LocalDateTime.now();
+        repo.addFeature(new FeatureDefinition("Window", true,
+                List.of(new FilterConfig("TimeBased", Map.of(
+                        "start", now.minusMinutes(1).toString(),
+                        "end", now.minusSeconds(1).toString())))));
+        FeatureContext ctx = new FeatureContext("u1", List.of(), List.of());
+
+        assertFalse(defaults.isEnabled("Window", ctx));
+        assertFalse(defaults.isEnabled("Window", ctx));
+        assertEquals(1, cache.getStats().getHitCount(), "expired window is stable and cacheable");
+    }
+
+    @Test
+    void testTimeWindowClosingWithinTtlIsNotServedPastBoundary() throws InterruptedException {
+        FeatureManager defaults = new FeatureManager(repo);
+        defaults.setResultCache(cache);
+        LocalDateTime end = LocalDateTime.now().plusNanos(300_000_000);
+        repo.addFeature(new FeatureDefinition("Window", true,
+                List.of(new FilterConfig("TimeBased", Map.of(
+                        "start", end.minusMinutes(1).toString(),
+                        "end", end.toString())))));
+        FeatureContext ctx = new FeatureContext("u1", List.of(), List.of());
+
+        assertTrue(defaults.isEnabled("Window", ctx));
+        assertTrue(defaults.isEnabled("Window", ctx));
+        assertEquals(1, cache.getStats().getHitCount(), "open window is cacheable until it closes");
+
+        while (!LocalDateTime.now().isAfter(end)) {
+            Thread.sleep(50);
+        }
+        assertFalse(defaults.isEnabled("Window", ctx), "the cached value must not outlive the window");
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    void testFilterWithoutCacheableOptInIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        FeatureManager custom = new FeatureManager(repo, Map.of(
+                "Volatile", (ctx, params) -> calls.incrementAndGet() > 0), MISSING);
+        custom.setResultCache(cache);
+        repo.addFeature(new FeatureDefinition("Volatile", true,
+                List.of(new FilterConfig("Volatile", Map.of()))));
+        FeatureContext ctx = new FeatureContext("u1", List.of(), List.of());
+
+        assertTrue(custom.isEnabled("Volatile", ctx));
+        assertTrue(custom.isEnabled("Volatile", ctx));
+        assertEquals(2, calls.get(), "a lambda filter is re-evaluated on every call");
+        assertEquals(0, cache.getStats().getHitCount());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        for (int i = 0; i < 500; i++) {
+            fm.isEnabled("Cached", new FeatureContext("user-" + i, List.of(), List.of()));
+        }
+        assertTrue(cache.getStats().getSize() <= 100);
+        assertTrue(cache.getStats().getEvictionCount() >= 400);
+    }
+}
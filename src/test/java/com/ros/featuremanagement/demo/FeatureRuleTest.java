@@ -0,0 +1,169 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureRule;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.FeatureSnapshotFile;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.RoleBasedFilter;
+import com.ros.featuremanagement.featuremanager.impl.TimeBasedFilter;
+import com.ros.featuremanagement.featuremanager.impl.YamlFeatureLoader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureRuleTest {
+
+    private static final FeatureContext ADMIN = new FeatureContext("alice", List.of("admin"), List.of());
+    private static final FeatureContext GUEST = new FeatureContext("bob", List.of("guest"), List.of());
+
+    private final YamlFeatureLoader loader = new YamlFeatureLoader();
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+    private AtomicInteger probes;
+    private List<String> audits;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        probes = new AtomicInteger();
+        audits = new ArrayList<>();
+        FeatureFilter probe = new FeatureFilter() {
+            @Override
+            public boolean evaluate(FeatureContext ctx, Map<String, Object> params) {
+                probes.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public boolean isReorderable() {
+                return true;
+            }
+        };
+        // records every call, so it must not be reordered or folded away
+        FeatureFilter audit = (ctx, params) -> {
+            audits.add(ctx.getUserId());
+            return false;
+        };
+        fm = new FeatureManager(repo, Map.of(
+                "RoleBased", new RoleBasedFilter(),
+                "TimeBased", new TimeBasedFilter(),
+                "Probe", probe,
+                "Audit", audit), (ctx, params) -> false);
+    }
+
+    @Test
+    void testRuleCombinesFiltersWithAllAnyAndNot() throws IOException {
+        repo.addFeature(loader.loadFeature("""
+                name: AdminNotGuest
+                enabled: true
+                rule:
+                  all:
+                    - any:
+                        - name: RoleBased
+                          parameters: { role: admin }
+                        - name: RoleBased
+                          parameters: { role: owner }
+                    - not:
+                        name: RoleBased
+                        parameters: { role: guest }
+                """));
+
+        assertTrue(fm.isEnabled("AdminNotGuest", ADMIN));
+        assertFalse(fm.isEnabled("AdminNotGuest", GUEST));
+        assertFalse(fm.isEnabled("AdminNotGuest",
+                new FeatureContext("carol", List.of("admin", "guest"), List.of())));
+    }
+
+    @Test
+    void testClosedTimeWindowIsFoldedAway() {
+        FeatureRule expired = FeatureRule.filter(new FilterConfig("TimeBased", Map.of("end", "2000-01-01T00:00:00")));
+        FeatureRule probe = FeatureRule.filter(new FilterConfig("Probe", Map.of()));
+        repo.addFeature(new FeatureDefinition("Expired", true, List.of(), FeatureRule.all(List.of(probe, expired))));
+        repo.addFeature(new FeatureDefinition("NotExpired", true, List.of(),
+                FeatureRule.all(List.of(probe, FeatureRule.not(expired)))));
+
+        assertFalse(fm.isEnabled("Expired", ADMIN));
+        assertEquals(0, probes.get(), "A branch that can no longer match should not be evaluated");
+        assertTrue(fm.isEnabled("NotExpired", ADMIN));
+        assertEquals(1, probes.get());
+    }
+
+    @Test
+    void testFilterWithSideEffectsIsNotFoldedAway() {
+        FeatureRule audit = FeatureRule.filter(new FilterConfig("Audit", Map.of()));
+        FeatureRule always = FeatureRule.filter(new FilterConfig("TimeBased", Map.of("start", "2000-01-01T00:00:00")));
+        FeatureRule probe = FeatureRule.filter(new FilterConfig("Probe", Map.of()));
+        repo.addFeature(new FeatureDefinition("Audited", true, List.of(),
+                FeatureRule.any(List.of(audit, always, probe))));
+
+        assertTrue(fm.isEnabled("Audited", ADMIN));
+        assertEquals(List.of("alice"), audits, "Audit is declared before the constant and must still run");
+        assertEquals(0, probes.get(), "Filters after the constant are never reached");
+
+        // a filter declared before Audit still decides whether Audit is reached
+        repo.addFeature(new FeatureDefinition("ProbedFirst", true, List.of(),
+                FeatureRule.any(List.of(probe, audit, always))));
+        assertTrue(fm.isEnabled("ProbedFirst", GUEST));
+        assertEquals(1, probes.get());
+        assertEquals(List.of("alice"), audits);
+    }
+
+    @Test
+    void testInvalidRuleLeafQuarantinesFeature() {
+        repo.addFeature(new FeatureDefinition("BadLeaf", true, List.of(), FeatureRule.any(List.of(
+                FeatureRule.filter(new FilterConfig("Probe", Map.of())),
+                FeatureRule.not(FeatureRule.filter(new FilterConfig("RoleBased", Map.of())))))));
+
+        assertFalse(fm.isEnabled("BadLeaf", ADMIN));
+        assertTrue(fm.getQuarantinedFeatures().containsKey("BadLeaf"));
+    }
+
+    @Test
+    void testInvalidRulesAreRejectedByLoader() {
+        assertThrows(IllegalArgumentException.class, () -> loader.loadFeature("""
+                name: Both
+                filters:
+                  - name: AlwaysOn
+                rule:
+                  name: AlwaysOn
+                """));
+        assertThrows(IllegalArgumentException.class, () -> loader.loadFeature("""
+                name: Unknown
+                rule:
+                  xor: []
+                """));
+        assertThrows(IllegalArgumentException.class, () -> loader.loadFeature("""
+                name: NotAList
+                rule:
+                  all: { name: AlwaysOn }
+                """));
+    }
+
+    @Test
+    void testRuleSurvivesSnapshotFile() throws IOException {
+        FeatureRule rule = FeatureRule.all(List.of(
+                FeatureRule.filter(new FilterConfig("RoleBased", Map.of("role", "admin"))),
+                FeatureRule.not(FeatureRule.any(List.of()))));
+        FeatureSnapshot snapshot = new FeatureSnapshot(3, Map.of(
+                "Ruled", new FeatureDefinition("Ruled", true, List.of(), rule)));
+
+        FeatureSnapshot decoded = FeatureSnapshotFile.decode(
+                ByteBuffer.wrap(FeatureSnapshotFile.encode(snapshot, Map.of()))).getSnapshot();
+
+        assertEquals(snapshot.getFeatures(), decoded.getFeatures());
+    }
+}
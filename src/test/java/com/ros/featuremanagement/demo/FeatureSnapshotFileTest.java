@@ -0,0 +1,82 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.FeatureSnapshotFile;
+import com.ros.featuremanagement.featuremanager.impl.SnapshotFileFeatureRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureSnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static FeatureSnapshot sampleSnapshot() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("percentage", 25.5);
+        params.put("count", 3);
+        params.put("big", 1L << 40);
+        params.put("flag", true);
+        params.put("missing", null);
+        params.put("users", List.of("alice", "bob"));
+        params.put("nested", Map.of("role", "ADMIN"));
+
+        Map<String, FeatureDefinition> features = new LinkedHashMap<>();
+        features.put("Rollout", new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("Percentage", params))));
+        features.put("Off", new FeatureDefinition("Off", false,
+                List.of(new FilterConfig("AlwaysOn", Map.of()))));
+        return new FeatureSnapshot(42, features);
+    }
+
+    @Test
+    void testRoundTripPreservesDefinitionsAndTypes() throws IOException {
+        Path file = dir.resolve("features.snapshot");
+        FeatureSnapshot snapshot = sampleSnapshot();
+        FeatureSnapshotFile.write(file, snapshot, Map.of("source", "test"));
+
+        FeatureSnapshotFile loaded = FeatureSnapshotFile.read(file);
+        assertEquals(42, loaded.getSnapshot().getVersion());
+        assertEquals(snapshot.getFeatures(), loaded.getSnapshot().getFeatures(), "Definitions should round-trip");
+        assertEquals("test", loaded.getMetadata().get("source"));
+
+        Map<String, Object> params = loaded.getSnapshot().getFeature("Rollout").getFilters().get(0).getParameters();
+        assertEquals(Integer.valueOf(3), params.get("count"));
+        assertEquals(Long.valueOf(1L << 40), params.get("big"));
+        assertTrue(params.containsKey("missing"));
+    }
+
+    @Test
+    void testCorruptFileIsRejected() throws IOException {
+        Path file = dir.resolve("features.snapshot");
+        byte[] bytes = FeatureSnapshotFile.encode(sampleSnapshot(), Map.of());
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> FeatureSnapshotFile.read(file));
+    }
+
+    @Test
+    void testRepositoryKeepsLastGoodSnapshotOnCorruptUpdate() throws IOException {
+        Path file = dir.resolve("features.snapshot");
+        FeatureSnapshotFile.write(file, sampleSnapshot(), Map.of());
+        SnapshotFileFeatureRepository repo = new SnapshotFileFeatureRepository(file);
+        assertTrue(repo.getFeature("Rollout").getEnabled());
+
+        Files.write(file, new byte[] {1, 2, 3});
+        repo.refresh();
+        assertNotNull(repo.getFeature("Rollout"), "Last good snapshot should be kept");
+    }
+}
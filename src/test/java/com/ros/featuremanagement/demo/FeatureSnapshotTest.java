@@ -0,0 +1,113 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureRepository;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureSnapshotTest {
+
+    @Test
+    void testSnapshotIsImmutableAndVersioned() {
+        InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
+        FeatureSnapshot before = repo.getSnapshot();
+
+        repo.addFeature(new FeatureDefinition("Added", true,
+                List.of(new FilterConfig("AlwaysOn", Map.of()))));
+        FeatureSnapshot after = repo.getSnapshot();
+
+        assertNull(before.getFeature("Added"), "earlier snapshot must not see later writes");
+        assertNotNull(after.getFeature("Added"));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(after, repo.getSnapshot(), "snapshot should be stable between writes");
+        assertThrows(UnsupportedOperationException.class,
+                () -> after.getFeatures().put("X", new FeatureDefinition("X", List.of())));
+    }
+
+    @Test
+    void testRepositoryWithoutSnapshotsGetsDefaultSnapshot() {
+        // written against the interface before getSnapshot() existed
+        Map<String, FeatureDefinition> features = new HashMap<>();
+        FeatureRepository legacy = new FeatureRepository() {
+            public FeatureDefinition getFeature(String name) { return features.get(name); }
+            public Map<String, FeatureDefinition> getAllFeatures() { return features; }
+            public void refresh() { }
+            public void addFeature(FeatureDefinition def) { features.put(def.getName(), def); }
+        };
+        FeatureManager fm = new FeatureManager(legacy);
+        FeatureContext ctx = new FeatureContext("u1", List.of(), List.of());
+
+        legacy.addFeature(new FeatureDefinition("Legacy", true, List.of(new FilterConfig("AlwaysOn", Map.of()))));
+        FeatureSnapshot copy = legacy.getSnapshot();
+        assertTrue(fm.isEnabled("Legacy", ctx));
+
+        legacy.addFeature(new FeatureDefinition("Legacy", false, List.of(new FilterConfig("AlwaysOn", Map.of()))));
+        assertTrue(copy.getFeature("Legacy").getEnabled(), "earlier snapshot must not see later writes");
+        assertTrue(fm.isEnabled("Legacy", ctx), "changes are only picked up on refresh");
+
+        fm.refreshFeatures();
+        assertFalse(fm.isEnabled("Legacy", ctx));
+    }
+
+    @Test
+    void testUnchangedRepositoryWithoutSnapshotsKeepsItsVersion() {
+        Map<String, FeatureDefinition> features = new HashMap<>();
+        features.put("Legacy", new FeatureDefinition("Legacy", true, List.of()));
+        FeatureRepository legacy = new FeatureRepository() {
+            public FeatureDefinition getFeature(String name) { return features.get(name); }
+            public Map<String, FeatureDefinition> getAllFeatures() { return new HashMap<>(features); }
+            public void refresh() { }
+            public void addFeature(FeatureDefinition def) { features.put(def.getName(), def); }
+        };
+        FeatureManager fm = new FeatureManager(legacy);
+        long version = fm.evaluateAll(new FeatureContext("u1", List.of(), List.of())).getVersion();
+
+        fm.refreshFeatures();
+        assertEquals(version, fm.evaluateAll(new FeatureContext("u1", List.of(), List.of())).getVersion());
+    }
+
+    @Test
+    void testConcurrentAddFeatureLosesNoUpdates() throws Exception {
+        InMemoryFeatureRepository repo = new InMemoryFeatureRepository();
+        int initial = repo.getSnapshot().size();
+        int threads = 4;
+        int perThread = 250;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    repo.addFeature(new FeatureDefinition("F-" + id + "-" + i, List.of()));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(initial + threads * perThread, repo.getSnapshot().size());
+    }
+}
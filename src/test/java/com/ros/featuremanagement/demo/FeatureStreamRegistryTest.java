@@ -0,0 +1,227 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.ExposureEvent;
+import com.ros.featuremanagement.featuremanager.ExposureLogger;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FeatureStreamRegistry;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.RoleBasedFilter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeatureStreamRegistryTest {
+
+    /** Captures the data payloads of sent events instead of writing them. */
+    static class CapturingEmitter extends SseEmitter {
+        final BlockingQueue<Map<?, ?>> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType item : builder.build()) {
+                if (item.getData() instanceof Map) {
+                    events.add((Map<?, ?>) item.getData());
+                }
+            }
+        }
+
+        Map<?, ?> next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+    private FeatureStreamRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        fm = new FeatureManager(repo);
+        registry = new FeatureStreamRegistry(fm, Duration.ofMinutes(1));
+        registry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    private static FeatureDefinition roleFeature(String name, String role) {
+        return new FeatureDefinition(name, true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", role))));
+    }
+
+    @Test
+    void testOnlyChangedValuesArePushed() throws InterruptedException {
+        CapturingEmitter admin = new CapturingEmitter();
+        CapturingEmitter user = new CapturingEmitter();
+        registry.register(admin, new FeatureContext("a", List.of("admin"), List.of()), null);
+        registry.register(user, new FeatureContext("u", List.of("user"), List.of()), null);
+
+        Map<?, ?> snapshot = admin.next();
+        assertEquals(true, ((Map<?, ?>) snapshot.get("features")).get("AlwaysOnFeature"));
+        assertNotNull(user.next());
+
+        repo.addFeature(roleFeature("AdminOnly", "admin"));
+        fm.refreshFeatures();
+
+        Map<?, ?> change = admin.next();
+        assertNotNull(change, "admin should see the new feature");
+        assertEquals(Map.of("AdminOnly", true), change.get("features"));
+
+        Map<?, ?> userChange = user.next();
+        assertEquals(Map.of("AdminOnly", false), userChange.get("features"));
+
+        // switching the role changes the value for the user only
+        repo.addFeature(roleFeature("AdminOnly", "user"));
+        fm.refreshFeatures();
+        assertEquals(Map.of("AdminOnly", false), admin.next().get("features"));
+        assertEquals(Map.of("AdminOnly", true), user.next().get("features"));
+    }
+
+    @Test
+    void testResumeAtCurrentVersionSkipsSnapshot() throws InterruptedException {
+        long version = fm.evaluateAll(new FeatureContext("a", List.of(), List.of())).getVersion();
+        CapturingEmitter emitter = new CapturingEmitter();
+        registry.register(emitter, new FeatureContext("a", List.of(), List.of()), String.valueOf(version));
+
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS), "client is already up to date");
+        assertEquals(1, registry.getConnectionCount());
+    }
+
+    @Test
+    void testChangeIsEvaluatedAgainstItsOwnSnapshot() throws InterruptedException {
+        CapturingEmitter admin = new CapturingEmitter();
+        registry.register(admin, new FeatureContext("a", List.of("admin"), List.of()), null);
+        assertNotNull(admin.next());
+        Queue<Runnable> deliveries = new ArrayDeque<>();
+        fm.setListenerExecutor(deliveries::add);
+
+        repo.addFeature(roleFeature("AdminOnly", "admin"));
+        fm.refreshFeatures();
+        long first = repo.getSnapshot().getVersion();
+        repo.addFeature(roleFeature("AdminOnly", "user"));
+        fm.refreshFeatures();
+
+        // the first change is delivered after the second snapshot was published
+        deliveries.poll().run();
+        Map<?, ?> change = admin.next();
+        assertEquals(first, change.get("version"));
+        assertEquals(Map.of("AdminOnly", true), change.get("features"));
+
+        deliveries.poll().run();
+        change = admin.next();
+        assertEquals(repo.getSnapshot().getVersion(), change.get("version"));
+        assertEquals(Map.of("AdminOnly", false), change.get("features"));
+    }
+
+    @Test
+    void testEquivalentContextsAreEvaluatedOnceWithoutMetrics() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        FeatureFilter counted = (ctx, params) -> {
+            calls.incrementAndGet();
+            return true;
+        };
+        FeatureManager counting = new FeatureManager(repo,
+                Map.of("Counted", counted, "RoleBased", new RoleBasedFilter()), (ctx, params) -> false);
+        try (FeatureStreamRegistry streams = new FeatureStreamRegistry(counting, Duration.ofMinutes(1))) {
+            streams.start();
+            CapturingEmitter first = new CapturingEmitter();
+            CapturingEmitter second = new CapturingEmitter();
+            streams.register(first, new FeatureContext("a", List.of("x", "y"), List.of()), null);
+            streams.register(second, new FeatureContext("a", List.of("y", "x"), List.of()), null);
+            assertNotNull(first.next());
+            assertNotNull(second.next());
+
+            repo.addFeature(new FeatureDefinition("Counted", true, List.of(new FilterConfig("Counted", Map.of()))));
+            counting.refreshFeatures();
+
+            assertEquals(Map.of("Counted", true), first.next().get("features"));
+            assertEquals(Map.of("Counted", true), second.next().get("features"));
+            assertEquals(1, calls.get(), "Equivalent contexts should share one evaluation");
+            assertEquals(0, counting.getMetrics().getFlagStats("Counted").getEvaluations(),
+                    "Pushing changes is not an evaluation by the application");
+        }
+    }
+
+    @Test
+    void testPushedValuesAreLoggedAsStreamExposures() throws InterruptedException, IOException {
+        List<ExposureEvent> events = new ArrayList<>();
+        ExposureLogger logger = new ExposureLogger(batch -> events.addAll(batch), 1024, 100,
+                Duration.ofMillis(10), Duration.ofMinutes(10));
+        fm.setExposureLogger(logger);
+        CapturingEmitter admin = new CapturingEmitter();
+        registry.register(admin, new FeatureContext("a", List.of("admin"), List.of()), null);
+        assertNotNull(admin.next());
+
+        repo.addFeature(roleFeature("AdminOnly", "admin"));
+        fm.refreshFeatures();
+        assertNotNull(admin.next());
+        logger.close();
+
+        assertEquals(repo.getAllFeatures().size(), events.size(), "the snapshot and the change are exposures");
+        assertTrue(events.stream().allMatch(e -> e.getSource() == ExposureEvent.Source.STREAM));
+        assertTrue(events.stream().anyMatch(e -> e.getFeatureName().equals("AdminOnly") && e.isEnabled()));
+    }
+
+    @Test
+    void testSlowClientDoesNotStallHeartbeats() throws InterruptedException {
+        CountDownLatch unblock = new CountDownLatch(1);
+        AtomicInteger blockedWrites = new AtomicInteger();
+        SseEmitter slow = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                blockedWrites.incrementAndGet();
+                try {
+                    unblock.await(); // a client that stopped reading
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountDownLatch heartbeats = new CountDownLatch(3);
+        SseEmitter healthy = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                heartbeats.countDown();
+            }
+        };
+        FeatureContext ctx = new FeatureContext("a", List.of(), List.of());
+        String current = String.valueOf(fm.evaluateAll(ctx).getVersion());
+        FeatureStreamRegistry frequent = new FeatureStreamRegistry(fm, Duration.ofMillis(10));
+        try {
+            frequent.register(slow, ctx, current);
+            frequent.register(healthy, ctx, current);
+            frequent.start();
+
+            assertTrue(heartbeats.await(5, TimeUnit.SECONDS), "heartbeats should reach the healthy client");
+            assertEquals(1, blockedWrites.get(), "no heartbeats should pile up behind a blocked write");
+        } finally {
+            unblock.countDown();
+            frequent.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
+import com.ros.featuremanagement.featuremanager.impl.FileYamlFeatureRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileYamlFeatureRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static String yaml(boolean enabled) {
+        return "features:\n"
+                + "  - name: FileFeature\n"
+                + "    enabled: " + enabled + "\n"
+                + "    filters:\n"
+                + "      - name: AlwaysOn\n"
+                + "        parameters: {}\n";
+    }
+
+    private static void write(Path file, String content, long mtimeOffsetMillis) throws IOException {
+        Files.writeString(file, content);
+        // make sure the change is visible even on filesystems with coarse timestamps
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + mtimeOffsetMillis));
+    }
+
+    @Test
+    void testUnchangedFileIsNotReloaded() throws IOException {
+        Path file = dir.resolve("features.yaml");
+        write(file, yaml(true), 0);
+        FileYamlFeatureRepository repo = new FileYamlFeatureRepository(file);
+        FeatureSnapshot loaded = repo.getSnapshot();
+
+        repo.refresh();
+        assertSame(loaded, repo.getSnapshot());
+
+        // touched but identical content: still no new snapshot
+        write(file, yaml(true), 5_000);
+        repo.refresh();
+        assertSame(loaded, repo.getSnapshot());
+    }
+
+    @Test
+    void testChangedFileIsReloaded() throws IOException {
+        Path file = dir.resolve("features.yaml");
+        write(file, yaml(true), 0);
+        FileYamlFeatureRepository repo = new FileYamlFeatureRepository(file);
+        assertTrue(repo.getFeature("FileFeature").getEnabled());
+
+        write(file, yaml(false), 5_000);
+        repo.refresh();
+
+        assertFalse(repo.getFeature("FileFeature").getEnabled());
+    }
+
+    @Test
+    void testParseFailureKeepsLastGoodSnapshot() throws IOException {
+        Path file = dir.resolve("features.yaml");
+        write(file, yaml(true), 0);
+        FileYamlFeatureRepository repo = new FileYamlFeatureRepository(file);
+        FeatureSnapshot loaded = repo.getSnapshot();
+
+        write(file, "features: [ this is: not valid", 5_000);
+        repo.refresh();
+
+        assertSame(loaded, repo.getSnapshot());
+        assertTrue(repo.getFeature("FileFeature").getEnabled());
+    }
+
+    @Test
+    void testInvalidEntryKeepsPreviousDefinition() throws IOException {
+        Path file = dir.resolve("features.yaml");
+        write(file, yaml(true) + "  - name: Other\n    enabled: true\n", 0);
+        FileYamlFeatureRepository repo = new FileYamlFeatureRepository(file);
+
+        write(file, "features:\n"
+                + "  - name: FileFeature\n"
+                + "    enabled: maybe\n"
+                + "  - name: Other\n"
+                + "    enabled: false\n", 5_000);
+        repo.refresh();
+
+        assertNotNull(repo.getFeature("FileFeature"), "a broken entry should not remove the flag");
+        assertTrue(repo.getFeature("FileFeature").getEnabled());
+        assertFalse(repo.getFeature("Other").getEnabled(), "valid entries are still updated");
+    }
+
+    @Test
+    void testWatcherReloadsOnChange() throws Exception {
+        Path file = dir.resolve("features.yaml");
+        write(file, yaml(true), 0);
+        try (FileYamlFeatureRepository repo = new FileYamlFeatureRepository(file)) {
+            repo.startWatching(Duration.ofMillis(50));
+
+            write(file, yaml(false), 5_000);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (repo.getFeature("FileFeature").getEnabled() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(repo.getFeature("FileFeature").getEnabled(), "watcher should pick up the change");
+        }
+    }
+}
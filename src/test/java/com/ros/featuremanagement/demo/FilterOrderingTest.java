@@ -0,0 +1,169 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.BoundFilter;
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureFilter;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.FilterCost;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+import com.ros.featuremanagement.featuremanager.impl.RoleBasedFilter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterOrderingTest {
+
+    private static final FeatureContext ALICE = new FeatureContext("alice", List.of("beta"), List.of());
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+    private AtomicInteger remoteCalls;
+    private AtomicInteger neverCalls;
+    private AtomicInteger auditCalls;
+    private AtomicInteger lookupCalls;
+    private AtomicInteger legacyCalls;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        remoteCalls = new AtomicInteger();
+        neverCalls = new AtomicInteger();
+        auditCalls = new AtomicInteger();
+        lookupCalls = new AtomicInteger();
+        legacyCalls = new AtomicInteger();
+
+        // declares its cost on the filter and relies on the default bind
+        FeatureFilter lookup = new FeatureFilter() {
+            @Override
+            public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+                lookupCalls.incrementAndGet();
+                return false;
+            }
+
+            @Override
+            public FilterCost getCost() {
+                return FilterCost.EXPENSIVE;
+            }
+
+            @Override
+            public boolean isReorderable() {
+                return true;
+            }
+        };
+        FeatureFilter legacy = (ctx, params) -> {
+            legacyCalls.incrementAndGet();
+            return false;
+        };
+
+        fm = new FeatureManager(repo, Map.of(
+                "Remote", counting(remoteCalls, false, FilterCost.EXPENSIVE, true),
+                "Never", counting(neverCalls, false, FilterCost.CHEAP, true),
+                "Audit", counting(auditCalls, false, FilterCost.EXPENSIVE, false),
+                "Lookup", lookup,
+                "Legacy", legacy,
+                "RoleBased", new RoleBasedFilter()),
+                (ctx, params) -> false);
+    }
+
+    private static FeatureFilter counting(AtomicInteger calls, boolean result, FilterCost cost, boolean reorderable) {
+        BoundFilter bound = new BoundFilter() {
+            @Override
+            public boolean evaluate(FeatureContext context) {
+                calls.incrementAndGet();
+                return result;
+            }
+
+            @Override
+            public FilterCost getCost() {
+                return cost;
+            }
+
+            @Override
+            public boolean isReorderable() {
+                return reorderable;
+            }
+        };
+        return new FeatureFilter() {
+            @Override
+            public boolean evaluate(FeatureContext context, Map<String, Object> parameters) {
+                return bound.evaluate(context);
+            }
+
+            @Override
+            public BoundFilter bind(String featureName, Map<String, Object> parameters) {
+                return bound;
+            }
+        };
+    }
+
+    @Test
+    void testCheapFiltersRunBeforeExpensiveOnes() {
+        repo.addFeature(feature("Rollout", "Remote", "RoleBased"));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        assertEquals(0, remoteCalls.get(), "The expensive filter should not run when a cheap one matches");
+    }
+
+    @Test
+    void testExpensiveCustomFilterRunsAfterRoleBased() {
+        repo.addFeature(feature("Rollout", "Lookup", "RoleBased"));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        assertEquals(0, lookupCalls.get(), "The cost declared on the filter should apply through the default bind");
+    }
+
+    @Test
+    void testFiltersWithoutOptInKeepDeclarationOrder() {
+        repo.addFeature(feature("Rollout", "Legacy", "RoleBased"));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        assertEquals(100, legacyCalls.get(), "A filter that did not opt in must not be reordered");
+    }
+
+    @Test
+    void testFiltersAreReorderedByHitRate() {
+        repo.addFeature(feature("Rollout", "Never", "RoleBased"));
+
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        neverCalls.set(0);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        assertEquals(0, neverCalls.get(), "The filter that never matches should have moved last");
+    }
+
+    @Test
+    void testFiltersAreNotMovedAcrossNonReorderableFilter() {
+        repo.addFeature(feature("Rollout", "Remote", "Audit", "RoleBased"));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(fm.isEnabled("Rollout", ALICE));
+        }
+        assertEquals(100, remoteCalls.get());
+        assertEquals(100, auditCalls.get(), "A filter with side effects must run exactly as declared");
+    }
+
+    private static FeatureDefinition feature(String name, String... filters) {
+        return new FeatureDefinition(name, true,
+                Arrays.stream(filters)
+                        .map(f -> new FilterConfig(f, "RoleBased".equals(f) ? Map.of("role", "beta") : Map.of()))
+                        .toList());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.FilterSchema;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterSchemaTest {
+
+    private static final FeatureContext ALICE = new FeatureContext("alice", List.of("beta"), List.of());
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        fm = new FeatureManager(repo);
+    }
+
+    @Test
+    void testValidateReportsEachProblem() {
+        FilterSchema schema = FilterSchema.of(
+                FilterSchema.Parameter.required("role", FilterSchema.Type.STRING),
+                FilterSchema.Parameter.optional("share", FilterSchema.Type.NUMBER).range(0.0, 1.0),
+                FilterSchema.Parameter.optional("users", FilterSchema.Type.STRING_LIST));
+
+        assertTrue(schema.validate(Map.of("role", "admin", "share", "0.5", "users", List.of("a", 1))).isEmpty());
+        assertEquals(1, schema.validate(null).size(), "Missing required parameter");
+        assertEquals(1, schema.validate(Map.of("role", "admin", "share", 2)).size(), "Out of range");
+        assertEquals(1, schema.validate(Map.of("role", "admin", "share", "lots")).size(), "Not a number");
+        assertEquals(1, schema.validate(Map.of("role", "admin", "users", Map.of("a", 1))).size(), "Not a list");
+        assertEquals(1, schema.validate(Map.of("role", "admin", "rol", "admin")).size(), "Unknown parameter");
+    }
+
+    @Test
+    void testInvalidDefinitionIsQuarantined() {
+        repo.addFeature(new FeatureDefinition("Typo", true,
+                List.of(new FilterConfig("Targeting", Map.of("user", List.of("alice"))))));
+        repo.addFeature(new FeatureDefinition("Valid", true,
+                List.of(new FilterConfig("Targeting", Map.of("users", List.of("alice"))))));
+
+        assertFalse(fm.isEnabled("Typo", ALICE));
+        assertTrue(fm.isEnabled("Valid", ALICE));
+        assertEquals(List.of("Typo"), List.copyOf(fm.getQuarantinedFeatures().keySet()));
+        assertTrue(fm.getQuarantinedFeatures().get("Typo").get(0).contains("'user'"));
+    }
+
+    @Test
+    void testInvalidUpdateKeepsServingPreviousDefinition() {
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "beta")))));
+        assertTrue(fm.isEnabled("Rollout", ALICE));
+
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of()))));
+        assertTrue(fm.isEnabled("Rollout", ALICE), "A bad update should not switch the feature off");
+        assertTrue(fm.getQuarantinedFeatures().containsKey("Rollout"));
+
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "admin")))));
+        assertFalse(fm.isEnabled("Rollout", ALICE));
+        assertTrue(fm.getQuarantinedFeatures().isEmpty());
+    }
+
+    @Test
+    void testRepeatedInvalidUpdatesKeepServingLastValidDefinition() {
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "beta")))));
+        assertTrue(fm.isEnabled("Rollout", ALICE));
+
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of()))));
+        assertTrue(fm.isEnabled("Rollout", ALICE));
+
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("rol", "beta")))));
+        assertTrue(fm.isEnabled("Rollout", ALICE), "A second bad update should not switch the feature off either");
+        assertTrue(fm.getQuarantinedFeatures().get("Rollout").get(0).contains("'rol'"));
+    }
+
+    @Test
+    void testDisablingWithInvalidParametersStillDisables() {
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "beta")))));
+        assertTrue(fm.isEnabled("Rollout", ALICE));
+
+        repo.addFeature(new FeatureDefinition("Rollout", false,
+                List.of(new FilterConfig("RoleBased", Map.of()))));
+        assertFalse(fm.isEnabled("Rollout", ALICE), "enabled: false must take effect despite the bad parameter");
+        assertTrue(fm.getQuarantinedFeatures().containsKey("Rollout"));
+
+        repo.addFeature(new FeatureDefinition("Rollout", true,
+                List.of(new FilterConfig("RoleBased", Map.of("rol", "beta")))));
+        assertTrue(fm.isEnabled("Rollout", ALICE), "Re-enabling falls back to the last valid filters");
+    }
+
+    @Test
+    void testFiltersWithoutSchemaAreNotValidated() {
+        repo.addFeature(new FeatureDefinition("Unknown", true,
+                List.of(new FilterConfig("Custom", Map.of("anything", 1)))));
+
+        assertFalse(fm.isEnabled("Unknown", ALICE));
+        assertTrue(fm.getQuarantinedFeatures().isEmpty());
+    }
+}
@@ -5,6 +5,7 @@ import com.ros.featuremanagement.featuremanager.FeatureManager;
 import com.ros.featuremanagement.featuremanager.FeatureDefinition;
 import com.ros.featuremanagement.featuremanager.FilterConfig;
 import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureEvaluationResult;
 
 import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
 
@@ -136,4 +137,35 @@ class InMemoryFeatureRepositoryTest {
         boolean result = featureManager.isEnabled("NoSuchFeature", new FeatureContext("u1", List.of(), List.of()));
         assertFalse(result, "Unknown feature should return false");
     }    
+
+    @Test
+    void testEvaluateAllMatchesIsEnabled() {
+        repo.addFeature(new FeatureDefinition("ManagerFeature", true,
+                List.of(new FilterConfig("RoleBased", Map.of("role", "manager")))));
+        FeatureContext ctx = new FeatureContext("user1", List.of("admin"), List.of());
+
+        FeatureEvaluationResult all = featureManager.evaluateAll(ctx);
+
+        assertEquals(repo.getAllFeatures().size(), all.size());
+        assertEquals(repo.getSnapshot().getVersion(), all.getVersion());
+        for (String name : repo.getAllFeatures().keySet()) {
+            assertEquals(featureManager.isEnabled(name, ctx), all.get(name), name);
+        }
+        assertTrue(all.isEnabled("AdminFeature"));
+        assertFalse(all.isEnabled("ManagerFeature"));
+        assertFalse(all.isEnabled("NonExistent"));
+        assertNull(all.get("NonExistent"));
+    }
+
+    @Test
+    void testEvaluateAllUsesSingleSnapshot() {
+        FeatureContext ctx = new FeatureContext("user1", List.of("admin"), List.of());
+        FeatureEvaluationResult before = featureManager.evaluateAll(ctx);
+
+        repo.addFeature(new FeatureDefinition("Later", true,
+                List.of(new FilterConfig("AlwaysOn", Map.of()))));
+
+        assertFalse(before.containsKey("Later"), "result must not change after it is built");
+        assertTrue(featureManager.evaluateAll(ctx).isEnabled("Later"));
+    }
 }
@@ -0,0 +1,87 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercentageFilterTest {
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        fm = new FeatureManager(repo);
+    }
+
+    private void addRollout(String name, Map<String, Object> params) {
+        repo.addFeature(new FeatureDefinition(name, true, List.of(new FilterConfig("Percentage", params))));
+    }
+
+    private static FeatureContext user(String id) {
+        return new FeatureContext(id, List.of(), List.of());
+    }
+
+    @Test
+    void testRolloutIsStickyPerUser() {
+        addRollout("Rollout", Map.of("percentage", 0.5));
+
+        for (int u = 0; u < 100; u++) {
+            boolean first = fm.isEnabled("Rollout", user("user-" + u));
+            for (int i = 0; i < 5; i++) {
+                assertEquals(first, fm.isEnabled("Rollout", user("user-" + u)), "user-" + u);
+            }
+        }
+    }
+
+    @Test
+    void testRolloutMatchesPercentage() {
+        addRollout("Rollout", Map.of("percentage", 0.2));
+
+        int enabled = 0;
+        int users = 20_000;
+        for (int u = 0; u < users; u++) {
+            if (fm.isEnabled("Rollout", user("user-" + u))) {
+                enabled++;
+            }
+        }
+        assertEquals(0.2, enabled / (double) users, 0.02);
+    }
+
+    @Test
+    void testRaisingPercentageOnlyAddsUsers() {
+        addRollout("Rollout", Map.of("percentage", 0.1, "salt", "s1"));
+        boolean[] before = new boolean[1000];
+        for (int u = 0; u < before.length; u++) {
+            before[u] = fm.isEnabled("Rollout", user("user-" + u));
+        }
+
+        addRollout("Rollout", Map.of("percentage", 0.3, "salt", "s1"));
+        for (int u = 0; u < before.length; u++) {
+            if (before[u]) {
+                assertTrue(fm.isEnabled("Rollout", user("user-" + u)), "user-" + u + " dropped out");
+            }
+        }
+    }
+
+    @Test
+    void testBoundariesAndAnonymousUsers() {
+        addRollout("None", Map.of("percentage", 0.0));
+        addRollout("All", Map.of("percentage", 1.0));
+
+        assertFalse(fm.isEnabled("None", user("alice")));
+        assertTrue(fm.isEnabled("All", user("alice")));
+        assertFalse(fm.isEnabled("All", user(null)), "contexts without a user id are never bucketed in");
+    }
+}
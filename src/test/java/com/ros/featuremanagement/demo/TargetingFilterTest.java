@@ -0,0 +1,72 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureContext;
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.FeatureManager;
+import com.ros.featuremanagement.featuremanager.FilterConfig;
+import com.ros.featuremanagement.featuremanager.impl.InMemoryFeatureRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetingFilterTest {
+
+    private InMemoryFeatureRepository repo;
+    private FeatureManager fm;
+
+    @BeforeEach
+    void setUp() {
+        repo = new InMemoryFeatureRepository();
+        fm = new FeatureManager(repo);
+    }
+
+    private static FeatureContext user(String id) {
+        return new FeatureContext(id, List.of(), List.of());
+    }
+
+    @Test
+    void testSmallUserList() {
+        repo.addFeature(new FeatureDefinition("Beta", true,
+                List.of(new FilterConfig("Targeting", Map.of("users", List.of("alice", "bob"))))));
+
+        assertTrue(fm.isEnabled("Beta", user("alice")));
+        assertFalse(fm.isEnabled("Beta", user("carol")));
+        assertFalse(fm.isEnabled("Beta", user(null)));
+    }
+
+    @Test
+    void testLargeUserListIsExact() {
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            users.add("beta-user-" + i);
+        }
+        repo.addFeature(new FeatureDefinition("Beta", true,
+                List.of(new FilterConfig("Targeting", Map.of("users", users)))));
+
+        for (int i = 0; i < 50_000; i += 997) {
+            assertTrue(fm.isEnabled("Beta", user("beta-user-" + i)), "beta-user-" + i);
+        }
+        for (int i = 50_000; i < 60_000; i++) {
+            assertFalse(fm.isEnabled("Beta", user("beta-user-" + i)), "beta-user-" + i);
+        }
+        assertFalse(fm.isEnabled("Beta", user("beta-user-")));
+        assertFalse(fm.isEnabled("Beta", user(null)));
+    }
+
+    @Test
+    void testPermissions() {
+        repo.addFeature(new FeatureDefinition("Invoices", true,
+                List.of(new FilterConfig("Targeting", Map.of("permissions", List.of("invoice.read"))))));
+
+        assertTrue(fm.isEnabled("Invoices", new FeatureContext("carol", List.of(), List.of("invoice.read"))));
+        assertFalse(fm.isEnabled("Invoices", new FeatureContext("carol", List.of("invoice.read"), List.of())),
+                "a role with the same name is not a permission");
+        assertFalse(fm.isEnabled("Invoices", new FeatureContext("carol", List.of(), List.of("invoice.write"))));
+    }
+}
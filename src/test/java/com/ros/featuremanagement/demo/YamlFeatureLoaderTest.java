@@ -0,0 +1,76 @@
+package com.ros.featuremanagement.demo;
+
+import com.ros.featuremanagement.featuremanager.FeatureDefinition;
+import com.ros.featuremanagement.featuremanager.impl.YamlFeatureLoader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlFeatureLoaderTest {
+
+    private final YamlFeatureLoader loader = new YamlFeatureLoader();
+
+    private static InputStream stream(String yaml) {
+        return new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLoadsFeatureYaml() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("feature.yaml")) {
+            YamlFeatureLoader.LoadResult result = loader.load(in);
+
+            assertTrue(result.getErrors().isEmpty());
+            assertEquals(5, result.getFeatures().size());
+            FeatureDefinition targeting = result.getFeatures().get("TargetingFeature");
+            assertEquals(List.of("alice", "bob"), targeting.getFilters().get(0).getParameters().get("users"));
+            assertFalse(result.getFeatures().get("TimeLimitedFeature").getEnabled());
+        }
+    }
+
+    @Test
+    void testInvalidEntriesAreReportedAndSkipped() throws IOException {
+        String yaml = "features:\n"
+                + "  - name: Good\n"
+                + "    enabled: true\n"
+                + "    filters:\n"
+                + "      - name: AlwaysOn\n"
+                + "  - enabled: true\n"                       // missing name
+                + "  - name: BadEnabled\n"
+                + "    enabled: [yes]\n"                      // wrong type
+                + "  - name: Good\n"                          // duplicate
+                + "    enabled: false\n"
+                + "  - name: AlsoGood\n"
+                + "    enabled: true\n"
+                + "    filters:\n"
+                + "      - name: RoleBased\n"
+                + "        parameters: {role: admin}\n";
+
+        YamlFeatureLoader.LoadResult result = loader.load(stream(yaml));
+
+        assertEquals(2, result.getFeatures().size());
+        assertTrue(result.getFeatures().get("Good").getEnabled(), "first definition of a duplicate wins");
+        assertEquals("admin", result.getFeatures().get("AlsoGood").getFilters().get(0).getParameters().get("role"));
+        assertEquals(3, result.getErrors().size(), result.getErrors().toString());
+    }
+
+    @Test
+    void testMalformedDocumentFails() {
+        assertThrows(IOException.class, () -> loader.load(stream("features: [ this is: not valid")));
+    }
+
+    @Test
+    void testLoadSingleFeature() throws IOException {
+        FeatureDefinition def = loader.loadFeature("name: Single\nenabled: true\nfilters:\n  - name: AlwaysOn\n");
+
+        assertEquals("Single", def.getName());
+        assertEquals(1, def.getFilters().size());
+        assertThrows(IllegalArgumentException.class, () -> loader.loadFeature("enabled: true\n"));
+    }
+}
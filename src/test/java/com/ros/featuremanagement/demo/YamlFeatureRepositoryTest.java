@@ -4,6 +4,7 @@ import com.ros.featuremanagement.featuremanager.FeatureContext;
 import com.ros.featuremanagement.featuremanager.FeatureDefinition;
 import com.ros.featuremanagement.featuremanager.FeatureManager;
 import com.ros.featuremanagement.featuremanager.FeatureRepository;
+import com.ros.featuremanagement.featuremanager.FeatureSnapshot;
 import com.ros.featuremanagement.featuremanager.impl.YamlFeatureRepository;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -57,5 +58,12 @@ class YamlFeatureRepositoryTest {
                 assertFalse(fm.isEnabled("TargetingFeature", userEve),
                         "eve should not match any targeting rule");
         }
-}
 
+        @Test
+        void testUnchangedRefreshKeepsSnapshot() {
+                FeatureSnapshot loaded = yamlRepo.getSnapshot();
+
+                yamlRepo.refresh();
+                assertSame(loaded, yamlRepo.getSnapshot(), "re-reading the same YAML should not publish");
+        }
+}